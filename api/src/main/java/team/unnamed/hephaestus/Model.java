@@ -31,7 +31,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Vector2Float;
 import team.unnamed.hephaestus.animation.Animation;
+import team.unnamed.hephaestus.animation.controller.PoseCache;
 import team.unnamed.hephaestus.asset.ModelAsset;
+import team.unnamed.hephaestus.view.AbstractModelView;
+import team.unnamed.hephaestus.view.hit.BoneBounds;
 
 import java.util.Collection;
 import java.util.Map;
@@ -50,6 +53,10 @@ public class Model implements Examinable {
     private final Vector2Float boundingBox;
     private ModelAsset asset;
     private final Map<String, Animation> animations;
+    private final Skeleton skeleton;
+    private final PoseCache poseCache;
+    // computed eagerly, the asset may be discarded
+    private final Map<String, BoneBounds> boneBounds;
 
     public Model(
             String name,
@@ -63,6 +70,9 @@ public class Model implements Examinable {
         this.boundingBox = boundingBox;
         this.asset = asset;
         this.animations = animations;
+        this.skeleton = Skeleton.compile(bones.values(), animations.values());
+        this.poseCache = PoseCache.poseCache(skeleton);
+        this.boneBounds = BoneBounds.of(asset);
     }
 
     /**
@@ -118,6 +128,43 @@ public class Model implements Examinable {
         return bones.get(name);
     }
 
+    /**
+     * Returns the compiled, index-based {@link Skeleton}
+     * of this model
+     *
+     * @return The model skeleton
+     * @since 1.0.0
+     */
+    public @NotNull Skeleton skeleton() {
+        return skeleton;
+    }
+
+    /**
+     * Returns the {@link PoseCache} shared by the views of this
+     * model, if they opt in to pose caching
+     *
+     * @return The model pose cache
+     * @see team.unnamed.hephaestus.animation.controller.AnimationPlayer#create(AbstractModelView, PoseCache)
+     * @since 1.0.0
+     */
+    public @NotNull PoseCache poseCache() {
+        return poseCache;
+    }
+
+    /**
+     * Returns the bounds of the cubes of the bone with the given
+     * name, used for hit detection, they are kept even if the
+     * resource-pack data is {@link #discardResourcePackData() discarded}
+     *
+     * @param name The bone name
+     * @return The bone bounds, or null if the bone doesn't exist,
+     * has no cubes, or this model was created without an asset
+     * @since 1.0.0
+     */
+    public @Nullable BoneBounds boneBounds(final @NotNull String name) {
+        return boneBounds.get(name);
+    }
+
     /**
      * Returns a map of the registered animations
      * for this model, keys are the animation names
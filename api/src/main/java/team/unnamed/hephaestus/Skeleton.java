@@ -0,0 +1,342 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.hephaestus.animation.Animation;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimeline;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimelinePlayhead;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A flat, compiled representation of the {@link Bone} hierarchy
+ * of a {@link Model}. Every bone is assigned an integer index, and
+ * bones are sorted in topological order, so that parents always
+ * come before their children.
+ *
+ * <p>This allows bone hierarchies to be walked with a simple
+ * loop over an int range, using array access instead of recursion
+ * and String-keyed lookups.</p>
+ *
+ * @since 1.0.0
+ */
+public final class Skeleton {
+
+    /**
+     * Channel flag for the bone position, see {@link #staticChannels(Animation)}
+     *
+     * @since 1.0.0
+     */
+    public static final int POSITION_CHANNEL = 1;
+
+    /**
+     * Channel flag for the bone rotation, see {@link #staticChannels(Animation)}
+     *
+     * @since 1.0.0
+     */
+    public static final int ROTATION_CHANNEL = 1 << 1;
+
+    /**
+     * Channel flag for the bone scale, see {@link #staticChannels(Animation)}
+     *
+     * @since 1.0.0
+     */
+    public static final int SCALE_CHANNEL = 1 << 2;
+
+    /**
+     * All the channel flags combined
+     *
+     * @since 1.0.0
+     */
+    public static final int ALL_CHANNELS = POSITION_CHANNEL | ROTATION_CHANNEL | SCALE_CHANNEL;
+
+    // values per frame: position, rotation and scale (x, y, z)
+    private static final int FRAME_SIZE = 9;
+
+    private final Bone[] bones;
+    private final int[] parents;
+    private final float[] restPositions;
+    private final float[] restRotations;
+    private final Map<String, Integer> indexes;
+
+    // animation timelines resolved to bone indexes, only
+    // holds the animations known at compile time, other
+    // animations are resolved when requested
+    private final Map<Animation, BoneTimeline[]> resolvedTimelines = new IdentityHashMap<>();
+    // channels that do not change during each resolved animation, by bone index
+    private final Map<Animation, byte[]> staticChannels = new IdentityHashMap<>();
+    private final byte[] noStaticChannels;
+
+    private Skeleton(final @NotNull List<Bone> bones, final @NotNull List<Integer> parents) {
+        final int size = bones.size();
+        this.bones = bones.toArray(new Bone[0]);
+        this.parents = new int[size];
+        this.restPositions = new float[size * 3];
+        this.restRotations = new float[size * 3];
+        this.indexes = new HashMap<>();
+        this.noStaticChannels = new byte[size];
+
+        for (int i = 0; i < size; i++) {
+            final Bone bone = this.bones[i];
+            final Vector3Float position = bone.position();
+            final Vector3Float rotation = bone.rotation();
+            this.parents[i] = parents.get(i);
+            this.restPositions[i * 3] = position.x();
+            this.restPositions[i * 3 + 1] = position.y();
+            this.restPositions[i * 3 + 2] = position.z();
+            this.restRotations[i * 3] = rotation.x();
+            this.restRotations[i * 3 + 1] = rotation.y();
+            this.restRotations[i * 3 + 2] = rotation.z();
+            this.indexes.put(bone.name(), i);
+        }
+    }
+
+    /**
+     * Compiles a skeleton from the given root bones and
+     * resolves the timelines of the given animations
+     *
+     * @param roots The root bones
+     * @param animations The animations to resolve
+     * @return The compiled skeleton
+     * @since 1.0.0
+     */
+    public static @NotNull Skeleton compile(
+            final @NotNull Collection<Bone> roots,
+            final @NotNull Collection<Animation> animations
+    ) {
+        requireNonNull(roots, "roots");
+        requireNonNull(animations, "animations");
+
+        final List<Bone> bones = new ArrayList<>();
+        final List<Integer> parents = new ArrayList<>();
+        for (final Bone root : roots) {
+            collect(root, -1, bones, parents);
+        }
+
+        final Skeleton skeleton = new Skeleton(bones, parents);
+        for (final Animation animation : animations) {
+            final BoneTimeline[] timelines = skeleton.resolve(animation);
+            skeleton.resolvedTimelines.put(animation, timelines);
+            skeleton.staticChannels.put(animation, analyze(timelines, animation.length()));
+        }
+        return skeleton;
+    }
+
+    // samples every timeline once per tick and flags the channels whose
+    // values never change, not animated bones have all channels static
+    private static byte @NotNull [] analyze(final @Nullable BoneTimeline @NotNull [] timelines, final int length) {
+        final byte[] channels = new byte[timelines.length];
+        final float[] first = new float[FRAME_SIZE];
+        final float[] frame = new float[FRAME_SIZE];
+        for (int index = 0; index < timelines.length; index++) {
+            final BoneTimeline timeline = timelines[index];
+            if (timeline == null) {
+                channels[index] = ALL_CHANNELS;
+                continue;
+            }
+            final BoneTimelinePlayhead playhead = timeline.createPlayhead();
+            playhead.next(first, 0);
+            int changed = 0;
+            for (int tick = 1; tick < length && changed != ALL_CHANNELS; tick++) {
+                playhead.next(frame, 0);
+                if (!Arrays.equals(first, 0, 3, frame, 0, 3)) {
+                    changed |= POSITION_CHANNEL;
+                }
+                if (!Arrays.equals(first, 3, 6, frame, 3, 6)) {
+                    changed |= ROTATION_CHANNEL;
+                }
+                if (!Arrays.equals(first, 6, 9, frame, 6, 9)) {
+                    changed |= SCALE_CHANNEL;
+                }
+            }
+            channels[index] = (byte) (ALL_CHANNELS & ~changed);
+        }
+        return channels;
+    }
+
+    private static void collect(
+            final @NotNull Bone bone,
+            final int parent,
+            final @NotNull List<Bone> bones,
+            final @NotNull List<Integer> parents
+    ) {
+        final int index = bones.size();
+        bones.add(bone);
+        parents.add(parent);
+        for (final Bone child : bone.children()) {
+            collect(child, index, bones, parents);
+        }
+    }
+
+    /**
+     * Returns the amount of bones in this skeleton
+     *
+     * @return The bone count
+     * @since 1.0.0
+     */
+    public int size() {
+        return bones.length;
+    }
+
+    /**
+     * Returns the bone at the given index
+     *
+     * @param index The bone index
+     * @return The bone
+     * @since 1.0.0
+     */
+    public @NotNull Bone bone(final int index) {
+        return bones[index];
+    }
+
+    /**
+     * Returns the index of the parent of the bone at the
+     * given index, or -1 if it is a root bone. Parent
+     * indexes are always lower than their children indexes
+     *
+     * @param index The bone index
+     * @return The parent bone index, or -1
+     * @since 1.0.0
+     */
+    public int parent(final int index) {
+        return parents[index];
+    }
+
+    /**
+     * Returns the index of the bone with the given
+     * name, or -1 if there is no bone with that name
+     *
+     * @param name The bone name
+     * @return The bone index, or -1
+     * @since 1.0.0
+     */
+    public int index(final @NotNull String name) {
+        final Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Returns the rest (initial) position component of
+     * the bone at the given index, relative to its parent
+     *
+     * @param index The bone index
+     * @param component The component, 0 for x, 1 for y and 2 for z
+     * @return The rest position component
+     * @since 1.0.0
+     */
+    public float restPosition(final int index, final int component) {
+        return restPositions[index * 3 + component];
+    }
+
+    /**
+     * Returns the rest (initial) rotation component of the
+     * bone at the given index, in euler angles (degrees)
+     *
+     * @param index The bone index
+     * @param component The component, 0 for x, 1 for y and 2 for z
+     * @return The rest rotation component
+     * @since 1.0.0
+     */
+    public float restRotation(final int index, final int component) {
+        return restRotations[index * 3 + component];
+    }
+
+    /**
+     * Returns the bone timelines of the given animation,
+     * indexed by bone index. Elements are null for the bones
+     * that are not animated by the given animation.
+     *
+     * <p>Timelines for the animations present when compiling
+     * the skeleton are resolved once and shared, the returned
+     * array must not be modified</p>
+     *
+     * @param animation The animation
+     * @return The animation timelines, by bone index
+     * @since 1.0.0
+     */
+    public @Nullable BoneTimeline @NotNull [] timelines(final @NotNull Animation animation) {
+        requireNonNull(animation, "animation");
+        final BoneTimeline[] timelines = resolvedTimelines.get(animation);
+        return timelines == null ? resolve(animation) : timelines;
+    }
+
+    /**
+     * Determines whether the timelines of the given animation were
+     * resolved when compiling this skeleton, which means that it is
+     * one of the model animations
+     *
+     * @param animation The animation
+     * @return True if the animation timelines are already resolved
+     * @since 1.0.0
+     */
+    public boolean resolved(final @NotNull Animation animation) {
+        requireNonNull(animation, "animation");
+        return resolvedTimelines.containsKey(animation);
+    }
+
+    /**
+     * Returns the channels that do not change during the whole
+     * given animation, for every bone, indexed by bone index, as a
+     * combination of {@link #POSITION_CHANNEL}, {@link #ROTATION_CHANNEL}
+     * and {@link #SCALE_CHANNEL}. Bones that are not animated by the
+     * given animation have all their channels static.
+     *
+     * <p>Channels are analyzed once, when compiling the skeleton, so
+     * no channel is considered static for animations that were not
+     * {@link #resolved(Animation) resolved}. The returned array must
+     * not be modified</p>
+     *
+     * @param animation The animation
+     * @return The static channels, by bone index
+     * @since 1.0.0
+     */
+    public byte @NotNull [] staticChannels(final @NotNull Animation animation) {
+        requireNonNull(animation, "animation");
+        final byte[] channels = staticChannels.get(animation);
+        return channels == null ? noStaticChannels : channels;
+    }
+
+    private @Nullable BoneTimeline @NotNull [] resolve(final @NotNull Animation animation) {
+        final BoneTimeline[] timelines = new BoneTimeline[bones.length];
+        for (final Map.Entry<String, BoneTimeline> entry : animation.timelines().entrySet()) {
+            final int index = index(entry.getKey());
+            if (index != -1) {
+                timelines[index] = entry.getValue();
+            }
+        }
+        return timelines;
+    }
+
+}
@@ -224,6 +224,21 @@ public interface Animation extends Examinable {
         @Contract("_, _ -> this")
         @NotNull Builder timeline(final @NotNull String boneName, final @NotNull BoneTimeline timeline);
 
+        /**
+         * Sets whether the animation bone timelines should be
+         * baked when building the animation. Baked timelines are
+         * sampled once per tick when the animation is built, so
+         * that playing them back does not require interpolation,
+         * at the cost of some memory. Disabled by default.
+         *
+         * @param baked True to bake the bone timelines
+         * @return This builder
+         * @see BoneTimeline#baked(BoneTimeline, int)
+         * @since 1.0.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder baked(final boolean baked);
+
         /**
          * Builds the animation
          *
@@ -131,6 +131,7 @@ final class AnimationImpl implements Animation {
         private int priority;
         private Map<String, BoneTimeline> timelines;
         private EffectsTimeline effectsTimeline;
+        private boolean baked;
 
         @Override
         public @NotNull Builder name(final @NotNull String name) {
@@ -179,8 +180,22 @@ final class AnimationImpl implements Animation {
             return this;
         }
 
+        @Override
+        public @NotNull Builder baked(final boolean baked) {
+            this.baked = baked;
+            return this;
+        }
+
         @Override
         public @NotNull Animation build() {
+            Map<String, BoneTimeline> timelines = this.timelines;
+            if (baked && timelines != null && length > 0) {
+                final Map<String, BoneTimeline> bakedTimelines = new HashMap<>();
+                for (final Map.Entry<String, BoneTimeline> entry : timelines.entrySet()) {
+                    bakedTimelines.put(entry.getKey(), BoneTimeline.baked(entry.getValue(), length));
+                }
+                timelines = bakedTimelines;
+            }
             return new AnimationImpl(name, length, loopMode, priority, timelines, effectsTimeline);
         }
     }
@@ -24,6 +24,7 @@
 package team.unnamed.hephaestus.animation.controller;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Vector3Float;
 import team.unnamed.hephaestus.animation.Animation;
 import team.unnamed.hephaestus.util.Quaternion;
@@ -32,6 +33,8 @@ import team.unnamed.mocha.MochaEngine;
 
 import java.util.Collection;
 
+import static java.util.Objects.requireNonNull;
+
 /**
  * The animation player. Responsible for playing
  * a single animation or a group of animations for
@@ -45,6 +48,9 @@ public interface AnimationPlayer {
      * currently playing animations so that it will be
      * played in the next ticks.
      *
+     * <p>This method may be called from any thread, the
+     * animation is added when the next tick starts.</p>
+     *
      * @param animation The queued animation
      * @param transitionTicks The animation transition ticks
      * @since 1.0.0
@@ -83,10 +89,95 @@ public interface AnimationPlayer {
     /**
      * Removes all the currently playing animations.
      *
+     * <p>This method may be called from any thread, the
+     * animations are removed when the next tick starts.</p>
+     *
      * @since 1.0.0
      */
     void clear();
 
+    /**
+     * Evaluates the next animation frame using the given model
+     * rotation and position, without applying it to the bone
+     * views, see {@link #apply()}.
+     *
+     * <p>Evaluation does not modify the bone views, so different
+     * animation players can be evaluated in parallel, but a single
+     * player must not be evaluated by two threads at a time.</p>
+     *
+     * @param initialRotation The initial model rotation
+     * @param initialPosition The initial model position
+     * @since 1.0.0
+     */
+    void evaluate(final @NotNull Quaternion initialRotation, final @NotNull Vector3Float initialPosition);
+
+    /**
+     * Evaluates the next animation frame using the given model
+     * rotation and initial position offset.
+     *
+     * @param yaw The model yaw
+     * @param pitch The model pitch
+     * @param initialPosition The initial model position
+     * @see #evaluate(Quaternion, Vector3Float)
+     * @since 1.0.0
+     */
+    default void evaluate(final float yaw, final float pitch, final @NotNull Vector3Float initialPosition) {
+        final Quaternion initialRotation = Quaternion.fromEulerDegrees(new Vector3Float(pitch, 360 - yaw, 0));
+        evaluate(initialRotation, initialPosition);
+    }
+
+    /**
+     * Evaluates the next animation frame.
+     *
+     * @see #evaluate(Quaternion, Vector3Float)
+     * @since 1.0.0
+     */
+    default void evaluate() {
+        evaluate(Quaternion.IDENTITY, Vector3Float.ZERO);
+    }
+
+    /**
+     * Advances the playing animations by the given amount of
+     * ticks without evaluating their frames, used to evaluate
+     * a model less often than once per tick.
+     *
+     * <p>Effects in the skipped ticks are not lost, they are
+     * run the next time this player is {@link #apply() applied}.
+     * Same threading rules as {@link #evaluate(Quaternion, Vector3Float)}
+     * apply.</p>
+     *
+     * @param ticks The amount of ticks to skip
+     * @throws IllegalArgumentException If ticks is negative
+     * @since 1.0.0
+     */
+    void advance(final int ticks);
+
+    /**
+     * Fast-forwards the playing animations by the given amount of
+     * ticks, moving their playheads directly to the resulting tick
+     * instead of simulating every skipped tick, so its cost does not
+     * depend on the amount of ticks. Used to catch up with views
+     * that were not evaluated for a long time.
+     *
+     * <p>Unlike {@link #advance(int)}, the effects in the skipped
+     * ticks are discarded. Same threading rules as
+     * {@link #evaluate(Quaternion, Vector3Float)} apply.</p>
+     *
+     * @param ticks The amount of ticks to skip
+     * @throws IllegalArgumentException If ticks is negative
+     * @since 1.0.0
+     */
+    void fastForward(final int ticks);
+
+    /**
+     * Applies the last evaluated animation frame to the bone views
+     * and runs its effects (sounds and instructions). Must be called
+     * by the thread that owns the bone views.
+     *
+     * @since 1.0.0
+     */
+    void apply();
+
     /**
      * Passes to the next animation frame using
      * the given model rotation and position
@@ -95,7 +186,10 @@ public interface AnimationPlayer {
      * @param initialPosition The initial model position
      * @since 1.0.0
      */
-    void tick(final @NotNull Quaternion initialRotation, final @NotNull Vector3Float initialPosition);
+    default void tick(final @NotNull Quaternion initialRotation, final @NotNull Vector3Float initialPosition) {
+        evaluate(initialRotation, initialPosition);
+        apply();
+    }
 
     /**
      * Passes to the next animation frame
@@ -129,13 +223,17 @@ public interface AnimationPlayer {
      * @since 1.0.0
      */
     default void tick(final float yaw, float pitch, @NotNull final Vector3Float initialPosition) {
-        final Quaternion initialRotation = Quaternion.fromEulerDegrees(new Vector3Float(pitch, 360 - yaw, 0));
-        tick(initialRotation, initialPosition);
+        evaluate(yaw, pitch, initialPosition);
+        apply();
     }
 
     /**
      * Returns the script engine for this animation controller.
      *
+     * <p>The script engine is created the first time it is
+     * needed, i.e. when this method is called or when an
+     * animation instruction is executed.</p>
+     *
      * @return The script engine
      * @since 1.0.0
      */
@@ -150,6 +248,27 @@ public interface AnimationPlayer {
      * @since 1.0.0
      */
     static @NotNull AnimationPlayer create(final @NotNull AbstractModelView<?> view) {
-        return new AnimationPlayerImpl(view);
+        requireNonNull(view, "view");
+        return new AnimationPlayerImpl(view, AnimationPlayerImpl.POSE_CACHE ? view.model().poseCache() : null);
+    }
+
+    /**
+     * Creates a new {@link AnimationPlayer} for the given
+     * {@link AbstractModelView model view}, sharing the
+     * evaluated poses through the given {@link PoseCache}.
+     *
+     * <p>Views playing the same animation in lockstep will
+     * evaluate each animation tick only once. Poses are only
+     * shared while a single animation is playing</p>
+     *
+     * @param view the model view to use
+     * @param poseCache The pose cache, or null to not cache poses
+     * @return The created animation controller
+     * @throws IllegalArgumentException If the pose cache is not
+     * for the skeleton of the view model
+     * @since 1.0.0
+     */
+    static @NotNull AnimationPlayer create(final @NotNull AbstractModelView<?> view, final @Nullable PoseCache poseCache) {
+        return new AnimationPlayerImpl(view, poseCache);
     }
 }
@@ -23,13 +23,15 @@
  */
 package team.unnamed.hephaestus.animation.controller;
 
-import net.kyori.adventure.sound.Sound;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Vector3Float;
-import team.unnamed.hephaestus.Bone;
+import team.unnamed.hephaestus.Skeleton;
 import team.unnamed.hephaestus.animation.Animation;
 import team.unnamed.hephaestus.animation.timeline.bone.BoneFrame;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimeline;
 import team.unnamed.hephaestus.animation.timeline.bone.BoneTimelinePlayhead;
+import team.unnamed.hephaestus.animation.timeline.effect.EffectsFrame;
 import team.unnamed.hephaestus.animation.timeline.effect.EffectsTimeline;
 import team.unnamed.hephaestus.animation.timeline.effect.EffectsTimelinePlayhead;
 import team.unnamed.hephaestus.util.Quaternion;
@@ -37,34 +39,99 @@ import team.unnamed.hephaestus.view.AbstractBoneView;
 import team.unnamed.hephaestus.view.AbstractModelView;
 import team.unnamed.mocha.MochaEngine;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static java.util.Objects.requireNonNull;
 
 class AnimationPlayerImpl implements AnimationPlayer {
+    static final boolean POSE_CACHE = Boolean.getBoolean("hephaestus.pose_cache");
+    static final boolean KEYFRAMES = Boolean.getBoolean("hephaestus.keyframe_network_mode");
+
     private final PriorityLinkedList<AnimationQueue> animations = new PriorityLinkedList<>();
+    // commands enqueued by any thread, run by the ticking thread
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
     private final AbstractModelView<?> view;
-    private final MochaEngine<AbstractModelView<?>> scriptEngine;
-
-    private final Map<String, BoneFrame> lastFrames = new HashMap<>();
+    // created when first used, most models do not use scripts
+    private volatile MochaEngine<AbstractModelView<?>> scriptEngine;
+    private final Skeleton skeleton;
+    private final @Nullable PoseCacheImpl poseCache;
+    // holds the linear spans of the animations, null if bones are updated every tick
+    private final @Nullable PoseCacheImpl keyframeSource;
+
+    // reusable buffers, the current frame of every bone is kept in
+    // 'frames' (see Pose.FRAME_SIZE), and the global transforms in 'pose'
+    private final float[] frames;
+    // true for the bones whose frame changed since it was last used
+    private final boolean[] framesChanged;
+    // the previous frame of the bone being evaluated
+    private final float[] previousFrame = new float[Pose.FRAME_SIZE];
+    private final AnimationQueue[] lastFrameOwners;
+    private final Pose pose;
+    // true if 'pose' was evaluated but not applied yet
+    private boolean evaluated;
+    // effects of the evaluated ticks, run when applying
+    private final List<EffectsFrame> pendingEffects = new ArrayList<>();
+
+    // evaluated ticks, including the advanced and fast-forwarded ones
+    private long ticks;
+    // the spans of the evaluated animation and its evaluated tick,
+    // null if the evaluated pose is not the one of a single animation
+    private @Nullable KeyframeSpans evaluatedSpans;
+    private int evaluatedTick;
+    // the spans the bones are interpolating through, the animation tick
+    // and tick count of the last apply through them, and the tick count
+    // at which each bone view reaches the pose it was last sent
+    private @Nullable KeyframeSpans interpolatedSpans;
+    private int appliedTick;
+    private long appliedTicks;
+    private final long[] interpolatingUntil;
+
+    // resolved lazily, since views may create their
+    // bones after creating their animation player
+    private AbstractBoneView[] boneViews;
+
+    AnimationPlayerImpl(final @NotNull AbstractModelView<?> view, final @Nullable PoseCache poseCache) {
+        this(view, poseCache, KEYFRAMES);
+    }
 
-    AnimationPlayerImpl(final @NotNull AbstractModelView<?> view) {
+    AnimationPlayerImpl(final @NotNull AbstractModelView<?> view, final @Nullable PoseCache poseCache, final boolean keyframes) {
         this.view = requireNonNull(view, "view");
-        this.scriptEngine = MochaEngine.createStandard(view);
+        this.skeleton = view.model().skeleton();
+        if (poseCache != null && poseCache.skeleton() != skeleton) {
+            throw new IllegalArgumentException("Pose cache is not for the skeleton of model '" + view.model().name() + "'");
+        }
+        this.poseCache = (PoseCacheImpl) poseCache;
+        this.keyframeSource = keyframes ? (PoseCacheImpl) view.model().poseCache() : null;
+
+        final int boneCount = skeleton.size();
+        this.frames = new float[boneCount * Pose.FRAME_SIZE];
+        this.framesChanged = new boolean[boneCount];
+        this.lastFrameOwners = new AnimationQueue[boneCount];
+        this.pose = new Pose(boneCount);
+        this.interpolatingUntil = new long[boneCount];
+        for (int index = 0; index < boneCount; index++) {
+            resetFrame(index);
+        }
     }
 
     @Override
-    public synchronized void add(final @NotNull Animation animation, final int transitionTicks) {
+    public void add(final @NotNull Animation animation, final int transitionTicks) {
         requireNonNull(animation, "animation");
+        commands.add(() -> play(animation, transitionTicks));
+    }
 
+    private void play(final @NotNull Animation animation, final int transitionTicks) {
         animations.add(animation.priority(), queue -> {
             if (queue == null) {
-                queue = new AnimationQueue();
+                queue = new AnimationQueue(skeleton, poseCache, keyframeSource);
             }
 
             if (transitionTicks == 0 || queue.current == null) {
@@ -72,7 +139,7 @@ class AnimationPlayerImpl implements AnimationPlayer {
                 queue.setCurrent(animation);
             } else {
                 queue.clear();
-                final Animation transitionAnimation = SyntheticAnimations.transitionTo(lastFrames, animation, transitionTicks);
+                final Animation transitionAnimation = SyntheticAnimations.transitionTo(skeleton, lastFrames(), animation, transitionTicks);
                 queue.setCurrent(transitionAnimation);
                 queue.queue(animation);
             }
@@ -82,7 +149,7 @@ class AnimationPlayerImpl implements AnimationPlayer {
     }
 
     @Override
-    public synchronized void remove(final @NotNull Animation animation) {
+    public void remove(final @NotNull Animation animation) {
         requireNonNull(animation, "animation");
         //animations.remove(animation);
     }
@@ -95,17 +162,154 @@ class AnimationPlayerImpl implements AnimationPlayer {
 
     @Override
     public void clear() {
-        animations.clear();
+        commands.add(animations::clear);
+    }
+
+    @Override
+    public void evaluate(final @NotNull Quaternion initialRotation, final @NotNull Vector3Float initialPosition) {
+        evaluate(
+                initialRotation.x(), initialRotation.y(), initialRotation.z(), initialRotation.w(),
+                initialPosition.x(), initialPosition.y(), initialPosition.z()
+        );
     }
 
     @Override
-    public synchronized void tick(final @NotNull Quaternion initialRotation, final @NotNull Vector3Float initialPosition) {
-        // tick bones recursively
-        for (final Bone bone : view.model().bones()) {
-            tickBone(bone, initialRotation, initialPosition, Vector3Float.ONE);
+    public void evaluate(final float yaw, final float pitch, final @NotNull Vector3Float initialPosition) {
+        // same as Quaternion.fromEulerDegrees(new Vector3Float(pitch, 360 - yaw, 0)),
+        // without creating any object
+        final double halfX = Math.toRadians(pitch) * 0.5D;
+        final double halfY = Math.toRadians(360 - yaw) * 0.5D;
+        final double cosX = Math.cos(halfX);
+        final double cosY = Math.cos(halfY);
+        final double sinX = Math.sin(halfX);
+        final double sinY = Math.sin(halfY);
+        evaluate(
+                sinX * cosY, cosX * sinY, -(sinX * sinY), cosX * cosY,
+                initialPosition.x(), initialPosition.y(), initialPosition.z()
+        );
+    }
+
+    @Override
+    public void advance(final int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Ticks must be positive or zero, got " + ticks);
+        }
+        if (ticks == 0) {
+            return;
+        }
+        runCommands();
+        for (int i = 0; i < ticks; i++) {
+            nextTick();
+            collectEffects();
+            handleEndedAnimations();
+        }
+        for (var node = animations.head(); node != null; node = node.next) {
+            // seek when their frames are needed again
+            node.value.playheadsBehind = node.value.current != null;
+        }
+    }
+
+    @Override
+    public void fastForward(final int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("Ticks must be positive or zero, got " + ticks);
+        }
+        if (ticks == 0) {
+            return;
+        }
+        runCommands();
+        this.ticks += ticks;
+        for (var node = animations.head(); node != null; node = node.next) {
+            final var queue = node.value;
+            int remaining = ticks;
+            while (remaining > 0 && queue.current != null) {
+                final var animation = queue.current;
+                // ticks until the animation ends (see handleEndedAnimations)
+                final int untilEnd = animation.length() - 1 - queue.tick;
+                if (remaining < untilEnd) {
+                    queue.tick += remaining;
+                    break;
+                }
+                remaining -= untilEnd;
+                queue.tick += untilEnd;
+                endAnimation(queue);
+                if (animation.loopMode() == Animation.LoopMode.LOOP) {
+                    // looping, skip the whole loops at once
+                    remaining %= Math.max(animation.length(), 1);
+                }
+            }
+            if (queue.current != null) {
+                queue.playheadsBehind = true;
+                queue.effectsIterator.seek(queue.tick + 1);
+            }
+        }
+    }
+
+    private void evaluate(
+            final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+            final float positionX, final float positionY, final float positionZ
+    ) {
+        runCommands();
+        nextTick();
+
+        pose.root(rotationX, rotationY, rotationZ, rotationW, positionX, positionY, positionZ);
+        final AnimationQueue cacheableQueue = cacheableQueue();
+        if (cacheableQueue != null) {
+            // the pose only depends on the animation tick, share it
+            // with other views and just apply our root transform
+            pose.compose(cachedPose(cacheableQueue));
+        } else {
+            for (var node = animations.head(); node != null; node = node.next) {
+                node.value.syncPlayheads();
+            }
+
+            // bones are topologically sorted, so parents
+            // are always computed before their children
+            for (int index = 0, boneCount = skeleton.size(); index < boneCount; index++) {
+                final boolean frameChanged = nextFrame(index) || framesChanged[index];
+                framesChanged[index] = false;
+                // skipped if neither the frame nor the parent changed
+                pose.update(skeleton, index, frames, frameChanged);
+            }
+        }
+        evaluated = true;
+
+        // bones can only interpolate through the spans of an animation
+        // if it is the only one posing them, and the root did not move
+        evaluatedSpans = null;
+        if (keyframeSource != null && !pose.rootChanged()) {
+            final AnimationQueue soleQueue = soleQueue();
+            if (soleQueue != null && soleQueue.keyframeSpans != null) {
+                evaluatedSpans = soleQueue.keyframeSpans;
+                evaluatedTick = soleQueue.tick;
+            }
+        }
+
+        collectEffects();
+        handleEndedAnimations();
+    }
+
+    private void runCommands() {
+        // apply the changes requested since the last tick, so that
+        // the animation state is only modified by the ticking thread
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
         }
+    }
 
-        for (final AnimationQueue queue : animations) {
+    private void nextTick() {
+        ticks++;
+        for (var node = animations.head(); node != null; node = node.next) {
+            if (node.value.current != null) {
+                node.value.tick++;
+            }
+        }
+    }
+
+    private void collectEffects() {
+        for (var node = animations.head(); node != null; node = node.next) {
+            final var queue = node.value;
             final var currentAnimation = queue.current;
 
             if (currentAnimation == null) {
@@ -114,126 +318,362 @@ class AnimationPlayerImpl implements AnimationPlayer {
 
             final var effectsIterator = queue.effectsIterator;
             final var effectsFrame = effectsIterator.next();
-            if (effectsIterator.tick() + 1 >= currentAnimation.length()) {
+            if (effectsIterator.tick() + 1 >= currentAnimation.length() || effectsFrame == EffectsFrame.INITIAL) {
                 continue;
             }
 
+            // effects are run when applying, by the thread owning the view
+            pendingEffects.add(effectsFrame);
+        }
+    }
+
+    private void handleEndedAnimations() {
+        for (var node = animations.head(); node != null; node = node.next) {
+            final var queue = node.value;
+            final var animation = queue.current;
+            if (animation == null || queue.tick + 1 < animation.length()) {
+                continue;
+            }
+            endAnimation(queue);
+        }
+    }
+
+    private void endAnimation(final @NotNull AnimationQueue queue) {
+        // animation ended!
+        switch (queue.current.loopMode()) {
+            case ONCE:
+                // animation ended, last frames are removed
+                // so that next calls will return INITIAL
+                for (int index = 0; index < lastFrameOwners.length; index++) {
+                    if (lastFrameOwners[index] == queue) {
+                        lastFrameOwners[index] = null;
+                        resetFrame(index);
+                    }
+                }
+                queue.moveToNextAnimation();
+                break;
+            case LOOP:
+                queue.setCurrent(queue.current);
+                break;
+            case HOLD:
+                queue.moveToNextAnimation();
+                break;
+        }
+    }
+
+    @Override
+    public void apply() {
+        if (evaluated) {
+            evaluated = false;
+            final AbstractBoneView[] boneViews = boneViews();
+            final KeyframeSpans spans = evaluatedSpans;
+            if (spans != interpolatedSpans || evaluatedTick - appliedTick != ticks - appliedTicks) {
+                // another animation started, or this one looped or restarted, so
+                // the bone views are not showing a pose of the evaluated one
+                Arrays.fill(interpolatingUntil, Long.MIN_VALUE);
+                interpolatedSpans = spans;
+            }
+            if (spans != null) {
+                appliedTick = evaluatedTick;
+            }
+            final long previousTicks = appliedTicks;
+            appliedTicks = ticks;
+            for (int index = 0, boneCount = skeleton.size(); index < boneCount; index++) {
+                final AbstractBoneView boneView = boneViews[index];
+                if (boneView == null) {
+                    continue;
+                }
+                if (spans != null && boneView.isEmpty()) {
+                    final long until = interpolatingUntil[index];
+                    if (until > ticks) {
+                        // still interpolating towards its next keyframe
+                        continue;
+                    }
+                    // only interpolate from the pose the bone view is showing, which
+                    // is the one of this tick, or the one of the last applied tick
+                    if (until == ticks || until == previousTicks) {
+                        final int keyframe = spans.nextKeyframe(index, evaluatedTick);
+                        final int span = keyframe - evaluatedTick;
+                        if (span > 1 && pose.interpolate(index, spans.pose(keyframe), boneView, span)) {
+                            interpolatingUntil[index] = ticks + span;
+                            continue;
+                        }
+                    }
+                    // otherwise, show the exact pose of this tick (e.g. the start
+                    // of a loop) first, and interpolate from it on the next one
+                    pose.apply(index, boneView);
+                    interpolatingUntil[index] = ticks;
+                    continue;
+                }
+                // modifiers may change the pose it is showing
+                interpolatingUntil[index] = Long.MIN_VALUE;
+                // unchanged bones are only updated if their modifiers may change them
+                if (pose.changed(index) || !boneView.isEmpty()) {
+                    pose.apply(index, boneView);
+                }
+            }
+        }
+
+        for (int effectIndex = 0, effectCount = pendingEffects.size(); effectIndex < effectCount; effectIndex++) {
+            final var effectsFrame = pendingEffects.get(effectIndex);
             final var sounds = effectsFrame.sounds();
-            final var instructions = effectsFrame.instructions();
+            final var instructions = effectsFrame.compiledInstructions();
 
-            for (Sound sound : sounds) {
-                view.emitSound(sound);
+            for (int i = 0, size = sounds.size(); i < size; i++) {
+                view.emitSound(sounds.get(i));
             }
-            for (String instruction : instructions) {
-                scriptEngine.eval(instruction);
+            if (!instructions.isEmpty()) {
+                final var scriptEngine = scriptEngine();
+                for (int i = 0, size = instructions.size(); i < size; i++) {
+                    // parsed once, when the animation was loaded
+                    scriptEngine.eval(instructions.get(i));
+                }
             }
         }
+        pendingEffects.clear();
     }
 
-    private void tickBone(Bone bone, Quaternion parentRotation, Vector3Float parentPosition, Vector3Float parentScale) {
-        BoneFrame boneFrame = nextFrame(bone.name());
-        Vector3Float frameScale = boneFrame.scale();
-        Vector3Float framePosition = boneFrame.position();
-        Vector3Float frameRotation = boneFrame.rotation();
-
-        Vector3Float localPosition = bone.position().add(framePosition);
-        Vector3Float localRotation = bone.rotation().add(frameRotation);
+    /**
+     * Returns the only playing animation queue if its pose can be
+     * shared, see {@link #soleQueue()}, and it is cached.
+     */
+    private @Nullable AnimationQueue cacheableQueue() {
+        if (poseCache == null) {
+            return null;
+        }
+        final AnimationQueue playing = soleQueue();
+        if (playing == null || playing.cachedPoses == null || playing.tick >= playing.cachedPoses.length()) {
+            return null;
+        }
+        return playing;
+    }
 
-        Vector3Float globalScale = parentScale.multiply(frameScale);
+    /**
+     * Returns the only playing animation queue if the pose only depends
+     * on it, i.e. it is not blended with other animations and the bones
+     * it does not animate are in their initial state.
+     */
+    private @Nullable AnimationQueue soleQueue() {
+        AnimationQueue playing = null;
+        for (var node = animations.head(); node != null; node = node.next) {
+            if (node.value.current != null) {
+                if (playing != null) {
+                    return null;
+                }
+                playing = node.value;
+            }
+        }
+        if (playing == null) {
+            return null;
+        }
+        for (int index = 0; index < lastFrameOwners.length; index++) {
+            if (playing.playheads[index] == null && lastFrameOwners[index] != null) {
+                // held frame from a previous animation, the pose is view-specific
+                return null;
+            }
+        }
+        return playing;
+    }
 
-        Quaternion globalRotation = parentRotation.multiply(Quaternion.fromEulerDegrees(localRotation));
-        Vector3Float globalPosition = parentRotation.transform(localPosition.multiply(globalScale)).add(parentPosition);
+    private @NotNull Pose cachedPose(final @NotNull AnimationQueue queue) {
+        final var cachedPoses = requireNonNull(queue.cachedPoses, "cachedPoses");
+        PoseCacheImpl.CachedPose cached = cachedPoses.get(queue.tick);
+        if (cached == null) {
+            queue.syncPlayheads();
+            for (int index = 0; index < lastFrameOwners.length; index++) {
+                final BoneTimelinePlayhead playhead = queue.playheads[index];
+                if (playhead != null) {
+                    playhead.next(frames, index * Pose.FRAME_SIZE);
+                    lastFrameOwners[index] = queue;
+                }
+            }
 
-        AbstractBoneView boneView = view.bone(bone.name());
-        if (boneView != null) {
-            boneView.update(globalPosition, globalRotation, globalScale);
+            // evaluate using the identity root transform
+            final Pose modelSpace = new Pose(skeleton.size());
+            for (int index = 0, boneCount = skeleton.size(); index < boneCount; index++) {
+                modelSpace.compute(skeleton, index, frames);
+            }
+            cached = new PoseCacheImpl.CachedPose(frames.clone(), modelSpace);
+            cachedPoses.set(queue.tick, cached);
+        } else {
+            System.arraycopy(cached.frames, 0, frames, 0, frames.length);
+            for (int index = 0; index < lastFrameOwners.length; index++) {
+                if (queue.playheads[index] != null) {
+                    lastFrameOwners[index] = queue;
+                }
+            }
+            // playheads were not advanced, they are
+            // synchronized when (and if) they are used again
+            queue.playheadsBehind = true;
         }
+        return cached.pose;
+    }
 
-        for (Bone child : bone.children()) {
-            tickBone(
-                    child,
-                    globalRotation,
-                    globalPosition,
-                    globalScale
-            );
+    private AbstractBoneView[] boneViews() {
+        AbstractBoneView[] boneViews = this.boneViews;
+        if (boneViews == null) {
+            boneViews = new AbstractBoneView[skeleton.size()];
+            for (int index = 0; index < boneViews.length; index++) {
+                boneViews[index] = view.bone(skeleton.bone(index).name());
+            }
+            this.boneViews = boneViews;
         }
+        return boneViews;
     }
 
     @Override
     public @NotNull MochaEngine<AbstractModelView<?>> scriptEngine() {
+        MochaEngine<AbstractModelView<?>> scriptEngine = this.scriptEngine;
+        if (scriptEngine == null) {
+            synchronized (this) {
+                scriptEngine = this.scriptEngine;
+                if (scriptEngine == null) {
+                    scriptEngine = MochaEngine.createStandard(view);
+                    this.scriptEngine = scriptEngine;
+                }
+            }
+        }
         return scriptEngine;
     }
 
-    private BoneFrame nextFrame(String boneName) {
-        if (animations.isEmpty()) {
-            // no animations being played
-            return fallback(boneName);
-        }
-
-        for (final var queue : animations) {
-            final var animation = queue.current;
-            if (animation == null) {
+    /**
+     * Writes the next frame of the bone at the given index into
+     * 'frames', and returns true if it is different from the
+     * previous one.
+     */
+    private boolean nextFrame(final int index) {
+        for (var node = animations.head(); node != null; node = node.next) {
+            final var queue = node.value;
+            if (queue.current == null) {
                 continue;
             }
-            final var iterator = queue.iterators.get(boneName);
+            final var playhead = queue.playheads[index];
 
-            if (iterator == null) {
+            if (playhead == null) {
                 // try with next animation
                 continue;
             }
 
-            final var frame = iterator.next();
-            final var tick = iterator.tick();
-            lastFrames.put(boneName, frame);
-
-            if (tick + 1 >= animation.length()) {
-                // animation ended!
-                switch (animation.loopMode()) {
-                    case ONCE:
-                        queue.moveToNextAnimation();
-                        // animation ended, lastFrames are removed
-                        // so that next calls will return INITIAL
-                        lastFrames.remove(boneName);
-                        return frame;
-                    case LOOP:
-                        queue.setCurrent(animation);
-                        return frame;
-                    case HOLD:
-                        queue.moveToNextAnimation();
-                        return frame;
-                }
+            final boolean isStatic = queue.staticChannels[index] == Skeleton.ALL_CHANNELS;
+            if (isStatic && queue.staticFramesWritten[index] && lastFrameOwners[index] == queue) {
+                // same frame during the whole animation, and it is
+                // already written, no need to move the playhead
+                return false;
             }
-            break;
+
+            final int offset = index * Pose.FRAME_SIZE;
+            System.arraycopy(frames, offset, previousFrame, 0, Pose.FRAME_SIZE);
+            playhead.next(frames, offset);
+            lastFrameOwners[index] = queue;
+            queue.staticFramesWritten[index] = isStatic;
+            return !Arrays.equals(frames, offset, offset + Pose.FRAME_SIZE, previousFrame, 0, Pose.FRAME_SIZE);
         }
+        // no animation for this bone, keep its last frame
+        return false;
+    }
 
-        return fallback(boneName);
+    private void resetFrame(final int index) {
+        final int offset = index * Pose.FRAME_SIZE;
+        framesChanged[index] = true;
+        Arrays.fill(frames, offset, offset + 6, 0F);
+        Arrays.fill(frames, offset + 6, offset + 9, 1F);
     }
 
-    private BoneFrame fallback(String boneName) {
-        return lastFrames.getOrDefault(boneName, BoneFrame.INITIAL);
+    private @Nullable BoneFrame @NotNull [] lastFrames() {
+        final BoneFrame[] lastFrames = new BoneFrame[skeleton.size()];
+        for (int index = 0; index < lastFrames.length; index++) {
+            if (lastFrameOwners[index] == null) {
+                continue;
+            }
+            final int offset = index * Pose.FRAME_SIZE;
+            lastFrames[index] = new BoneFrame(
+                    new Vector3Float(frames[offset], frames[offset + 1], frames[offset + 2]),
+                    new Vector3Float(frames[offset + 3], frames[offset + 4], frames[offset + 5]),
+                    new Vector3Float(frames[offset + 6], frames[offset + 7], frames[offset + 8])
+            );
+        }
+        return lastFrames;
     }
 
     private static class AnimationQueue {
         final List<Animation> queue = new LinkedList<>();
+        final Skeleton skeleton;
+        final @Nullable PoseCacheImpl poseCache;
+        final @Nullable PoseCacheImpl keyframeSource;
 
         @NotNull EffectsTimelinePlayhead effectsIterator = new EffectsTimelinePlayhead(EffectsTimeline.empty().build());
-        final Map<String, BoneTimelinePlayhead> iterators = new HashMap<>();
+        final BoneTimelinePlayhead[] playheads;
+        // static channels of every bone in the current animation, and whether
+        // the frame of its static bones was written (they are not moved again)
+        byte[] staticChannels;
+        final boolean[] staticFramesWritten;
         Animation current;
+        int tick;
+
+        // cached poses of the current animation, by tick (null if not cached)
+        @Nullable AtomicReferenceArray<PoseCacheImpl.CachedPose> cachedPoses;
+        // linear spans of the current animation (null if not analyzed)
+        @Nullable KeyframeSpans keyframeSpans;
+        // true if the playheads must seek to the current tick before being used
+        boolean playheadsBehind;
+
+        AnimationQueue(final @NotNull Skeleton skeleton, final @Nullable PoseCacheImpl poseCache, final @Nullable PoseCacheImpl keyframeSource) {
+            this.skeleton = skeleton;
+            this.poseCache = poseCache;
+            this.keyframeSource = keyframeSource;
+            this.playheads = new BoneTimelinePlayhead[skeleton.size()];
+            this.staticFramesWritten = new boolean[skeleton.size()];
+        }
+
+        void syncPlayheads() {
+            if (!playheadsBehind) {
+                return;
+            }
+            playheadsBehind = false;
+            for (final BoneTimelinePlayhead playhead : playheads) {
+                if (playhead != null) {
+                    playhead.seek(tick);
+                }
+            }
+        }
 
         void queue(Animation animation) {
             queue.add(animation);
         }
 
         void setCurrent(Animation animation) {
+            tick = -1;
+            playheadsBehind = false;
+            if (animation == current) {
+                // restarting the same animation (e.g. looping),
+                // rewind the playheads instead of creating new ones
+                for (final BoneTimelinePlayhead playhead : playheads) {
+                    if (playhead != null) {
+                        playhead.seek(0);
+                    }
+                }
+                effectsIterator.seek(0);
+                return;
+            }
             current = animation;
-            iterators.clear();
-            animation.timelines().forEach((name, list) -> iterators.put(name, list.createPlayhead()));
+            staticChannels = skeleton.staticChannels(animation);
+            Arrays.fill(staticFramesWritten, false);
+            final BoneTimeline[] timelines = skeleton.timelines(animation);
+            for (int index = 0; index < playheads.length; index++) {
+                final BoneTimeline timeline = timelines[index];
+                playheads[index] = timeline == null ? null : timeline.createPlayhead();
+            }
             effectsIterator = animation.effectsTimeline().createPlayhead();
+            cachedPoses = poseCache == null ? null : poseCache.entry(animation);
+            keyframeSpans = keyframeSource == null ? null : keyframeSource.keyframeSpans(animation);
         }
 
         void moveToNextAnimation() {
             if (queue.isEmpty()) {
                 current = null;
+                cachedPoses = null;
+                keyframeSpans = null;
+                Arrays.fill(playheads, null);
                 return;
             }
             setCurrent(queue.remove(0));
@@ -242,6 +682,9 @@ class AnimationPlayerImpl implements AnimationPlayer {
         void clear() {
             queue.clear();
             current = null;
+            cachedPoses = null;
+            keyframeSpans = null;
+            Arrays.fill(playheads, null);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.controller;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.hephaestus.Skeleton;
+import team.unnamed.hephaestus.animation.Animation;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimeline;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimelinePlayhead;
+
+import java.util.Arrays;
+
+/**
+ * The linear spans of every bone during an animation, in model space.
+ *
+ * <p>Between two consecutive keyframes of a bone, its transform is (within
+ * the configured error bounds) the linear interpolation of its transforms
+ * at both keyframes, spherical for rotations. Bone views interpolating by
+ * themselves can then be updated once per span instead of every tick, see
+ * {@link team.unnamed.hephaestus.view.AbstractBoneView#interpolate}.</p>
+ *
+ * <p>Curved segments (e.g. Catmull-Rom or Bézier) are split into several
+ * shorter linear spans, down to single ticks.</p>
+ */
+final class KeyframeSpans {
+    // max distance between the interpolated and the actual position
+    static final float POSITION_ERROR = Float.parseFloat(System.getProperty("hephaestus.keyframe_position_error", "0.01"));
+    // max angle between the interpolated and the actual rotation, in degrees
+    static final double ROTATION_ERROR = Double.parseDouble(System.getProperty("hephaestus.keyframe_rotation_error", "0.5"));
+    // max difference between the interpolated and the actual scale
+    static final float SCALE_ERROR = Float.parseFloat(System.getProperty("hephaestus.keyframe_scale_error", "0.01"));
+    // max span length, bounds how long a view shows a wrong
+    // transform if something interrupts the interpolation
+    static final int MAX_SPAN = Integer.getInteger("hephaestus.keyframe_max_span", 20);
+
+    // |dot| between two unit quaternions at most ROTATION_ERROR apart
+    private static final double MIN_ROTATION_DOT = Math.cos(Math.toRadians(ROTATION_ERROR) * 0.5D);
+
+    private final int length;
+    // the next keyframe tick of every bone, by bone index and tick
+    private final int[] nextKeyframes;
+    // model-space poses at the keyframe ticks, null for other ticks
+    private final Pose[] poses;
+
+    private KeyframeSpans(final int length, final int @NotNull [] nextKeyframes, final @Nullable Pose @NotNull [] poses) {
+        this.length = length;
+        this.nextKeyframes = nextKeyframes;
+        this.poses = poses;
+    }
+
+    /**
+     * Returns the next keyframe tick of the bone at the given {@code index}
+     * after the given {@code tick}, or {@code tick} if there is none.
+     */
+    int nextKeyframe(final int index, final int tick) {
+        if (tick < 0 || tick >= length) {
+            return tick;
+        }
+        return nextKeyframes[index * length + tick];
+    }
+
+    /**
+     * Returns the model-space pose at the given keyframe {@code tick}.
+     */
+    @NotNull Pose pose(final int tick) {
+        return poses[tick];
+    }
+
+    /**
+     * Evaluates the model-space pose of the given animation at every
+     * tick, and splits the transforms of every bone into linear spans.
+     */
+    static @NotNull KeyframeSpans analyze(final @NotNull Skeleton skeleton, final @NotNull Animation animation) {
+        final int length = animation.length();
+        final int boneCount = skeleton.size();
+
+        // evaluate every tick using the identity root transform
+        final BoneTimeline[] timelines = skeleton.timelines(animation);
+        final BoneTimelinePlayhead[] playheads = new BoneTimelinePlayhead[boneCount];
+        final float[] frames = new float[boneCount * Pose.FRAME_SIZE];
+        for (int index = 0; index < boneCount; index++) {
+            final int offset = index * Pose.FRAME_SIZE;
+            Arrays.fill(frames, offset + 6, offset + 9, 1F);
+            if (timelines[index] != null) {
+                playheads[index] = timelines[index].createPlayhead();
+            }
+        }
+        final Pose[] allPoses = new Pose[length];
+        for (int tick = 0; tick < length; tick++) {
+            for (int index = 0; index < boneCount; index++) {
+                if (playheads[index] != null) {
+                    playheads[index].next(frames, index * Pose.FRAME_SIZE);
+                }
+            }
+            final Pose pose = new Pose(boneCount);
+            for (int index = 0; index < boneCount; index++) {
+                pose.compute(skeleton, index, frames);
+            }
+            allPoses[tick] = pose;
+        }
+
+        // greedily extend every span while it is still linear
+        final int[] nextKeyframes = new int[boneCount * length];
+        final boolean[] keyframes = new boolean[length];
+        keyframes[0] = true;
+        keyframes[length - 1] = true;
+        for (int index = 0; index < boneCount; index++) {
+            final int offset = index * length;
+            int start = 0;
+            while (start < length - 1) {
+                int end = start + 1;
+                while (end + 1 < length && end + 1 - start <= MAX_SPAN && linear(allPoses, index, start, end + 1)) {
+                    end++;
+                }
+                Arrays.fill(nextKeyframes, offset + start, offset + end, end);
+                keyframes[end] = true;
+                start = end;
+            }
+            nextKeyframes[offset + length - 1] = length - 1;
+        }
+
+        // only keep the poses that can be interpolated to
+        final Pose[] poses = new Pose[length];
+        for (int tick = 0; tick < length; tick++) {
+            if (keyframes[tick]) {
+                poses[tick] = allPoses[tick];
+            }
+        }
+        return new KeyframeSpans(length, nextKeyframes, poses);
+    }
+
+    /**
+     * Determines whether the transforms of the bone at the given
+     * {@code index} between the {@code start} and {@code end} ticks
+     * are the interpolation of the transforms at both ticks.
+     */
+    private static boolean linear(final @NotNull Pose @NotNull [] poses, final int index, final int start, final int end) {
+        final Pose from = poses[start];
+        final Pose to = poses[end];
+        final int vectorIndex = index * 3;
+        final int rotationIndex = index * 4;
+
+        // shortest path, as done by the interpolation
+        final double fx = from.rotations[rotationIndex];
+        final double fy = from.rotations[rotationIndex + 1];
+        final double fz = from.rotations[rotationIndex + 2];
+        final double fw = from.rotations[rotationIndex + 3];
+        double tx = to.rotations[rotationIndex];
+        double ty = to.rotations[rotationIndex + 1];
+        double tz = to.rotations[rotationIndex + 2];
+        double tw = to.rotations[rotationIndex + 3];
+        double cos = fx * tx + fy * ty + fz * tz + fw * tw;
+        if (cos < 0) {
+            tx = -tx;
+            ty = -ty;
+            tz = -tz;
+            tw = -tw;
+            cos = -cos;
+        }
+        final double angle = Math.acos(Math.min(cos, 1D));
+        final double sin = Math.sin(angle);
+
+        for (int tick = start + 1; tick < end; tick++) {
+            final Pose actual = poses[tick];
+            final float alpha = (float) (tick - start) / (end - start);
+
+            for (int component = 0; component < 3; component++) {
+                final int i = vectorIndex + component;
+                final float position = from.positions[i] + (to.positions[i] - from.positions[i]) * alpha;
+                if (Math.abs(position - actual.positions[i]) > POSITION_ERROR) {
+                    return false;
+                }
+                final float scale = from.scales[i] + (to.scales[i] - from.scales[i]) * alpha;
+                if (Math.abs(scale - actual.scales[i]) > SCALE_ERROR) {
+                    return false;
+                }
+            }
+
+            // spherical linear interpolation, linear if both are too close
+            final double fromWeight;
+            final double toWeight;
+            if (sin < 1E-6) {
+                fromWeight = 1 - alpha;
+                toWeight = alpha;
+            } else {
+                fromWeight = Math.sin((1 - alpha) * angle) / sin;
+                toWeight = Math.sin(alpha * angle) / sin;
+            }
+            final double x = fx * fromWeight + tx * toWeight;
+            final double y = fy * fromWeight + ty * toWeight;
+            final double z = fz * fromWeight + tz * toWeight;
+            final double w = fw * fromWeight + tw * toWeight;
+            final double norm = Math.sqrt(x * x + y * y + z * z + w * w);
+            final double dot = (x * actual.rotations[rotationIndex]
+                    + y * actual.rotations[rotationIndex + 1]
+                    + z * actual.rotations[rotationIndex + 2]
+                    + w * actual.rotations[rotationIndex + 3]) / norm;
+            if (Math.abs(dot) < MIN_ROTATION_DOT) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,340 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.controller;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.hephaestus.Skeleton;
+import team.unnamed.hephaestus.view.AbstractBoneView;
+
+import java.util.Arrays;
+
+/**
+ * Reusable, mutable buffers holding the global (model-space)
+ * transforms of every bone of a {@link Skeleton}, indexed by
+ * bone index.
+ *
+ * <p>Poses are evaluated using primitive math only, so that
+ * evaluating a pose does not allocate any object.</p>
+ *
+ * <p>The slot after the last bone holds the root transform,
+ * which is used as the parent of root bones.</p>
+ *
+ * <p>Bones are only computed again if their frame or their parent
+ * transform changed, so that static subtrees are skipped.</p>
+ */
+final class Pose {
+
+    // amount of values per bone frame: position, rotation and scale (x, y, z)
+    static final int FRAME_SIZE = 9;
+
+    private final int size;
+    private final int root;
+
+    // 3 values per bone
+    final float[] positions;
+    // 4 values per bone (x, y, z, w)
+    final double[] rotations;
+    // 3 values per bone
+    final float[] scales;
+
+    // true for the bones (and root) whose global transform
+    // was computed again during the last evaluation
+    private final boolean[] dirty;
+    // true for the bones whose global transform changed
+    // since they were last applied
+    private final boolean[] changed;
+
+    Pose(final int size) {
+        this.size = size;
+        this.root = size;
+        this.positions = new float[(size + 1) * 3];
+        this.rotations = new double[(size + 1) * 4];
+        this.scales = new float[(size + 1) * 3];
+        this.dirty = new boolean[size + 1];
+        this.changed = new boolean[size];
+        root(0, 0, 0, 1, 0, 0, 0);
+        dirty[root] = true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Sets the root transform, from which root bones are computed.
+     */
+    void root(
+            final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+            final float positionX, final float positionY, final float positionZ
+    ) {
+        final int rotationIndex = root * 4;
+        final int index = root * 3;
+        dirty[root] = rotations[rotationIndex] != rotationX
+                || rotations[rotationIndex + 1] != rotationY
+                || rotations[rotationIndex + 2] != rotationZ
+                || rotations[rotationIndex + 3] != rotationW
+                || positions[index] != positionX
+                || positions[index + 1] != positionY
+                || positions[index + 2] != positionZ;
+        rotations[rotationIndex] = rotationX;
+        rotations[rotationIndex + 1] = rotationY;
+        rotations[rotationIndex + 2] = rotationZ;
+        rotations[rotationIndex + 3] = rotationW;
+        positions[index] = positionX;
+        positions[index + 1] = positionY;
+        positions[index + 2] = positionZ;
+        scales[index] = 1;
+        scales[index + 1] = 1;
+        scales[index + 2] = 1;
+    }
+
+    /**
+     * Computes the global transform of the bone at the given {@code index}
+     * if its frame changed or its parent transform was computed again, see
+     * {@link #compute(Skeleton, int, float[])}.
+     */
+    void update(final @NotNull Skeleton skeleton, final int index, final float @NotNull [] frames, final boolean frameChanged) {
+        final int parent = skeleton.parent(index) == -1 ? root : skeleton.parent(index);
+        if (frameChanged || dirty[parent]) {
+            compute(skeleton, index, frames);
+        } else {
+            dirty[index] = false;
+        }
+    }
+
+    /**
+     * Computes the global transform of the bone at the given {@code index},
+     * from its parent global transform and its local animation frame, which
+     * is read from {@code frames} at {@code index * FRAME_SIZE}.
+     *
+     * <p>The parent bone transform must have been computed before.</p>
+     */
+    void compute(final @NotNull Skeleton skeleton, final int index, final float @NotNull [] frames) {
+        final int parent = skeleton.parent(index) == -1 ? root : skeleton.parent(index);
+        final int frame = index * FRAME_SIZE;
+        dirty[index] = true;
+        changed[index] = true;
+
+        final int parentIndex = parent * 3;
+        final int parentRotationIndex = parent * 4;
+        final double px = rotations[parentRotationIndex];
+        final double py = rotations[parentRotationIndex + 1];
+        final double pz = rotations[parentRotationIndex + 2];
+        final double pw = rotations[parentRotationIndex + 3];
+
+        // global scale = parent scale * frame scale
+        final int vectorIndex = index * 3;
+        final float scaleX = scales[parentIndex] * frames[frame + 6];
+        final float scaleY = scales[parentIndex + 1] * frames[frame + 7];
+        final float scaleZ = scales[parentIndex + 2] * frames[frame + 8];
+        scales[vectorIndex] = scaleX;
+        scales[vectorIndex + 1] = scaleY;
+        scales[vectorIndex + 2] = scaleZ;
+
+        // local rotation = rest rotation + frame rotation (euler degrees)
+        final double halfX = Math.toRadians(frames[frame + 3] + skeleton.restRotation(index, 0)) * 0.5D;
+        final double halfY = Math.toRadians(frames[frame + 4] + skeleton.restRotation(index, 1)) * 0.5D;
+        final double halfZ = Math.toRadians(frames[frame + 5] + skeleton.restRotation(index, 2)) * 0.5D;
+        final double cosX = Math.cos(halfX);
+        final double cosY = Math.cos(halfY);
+        final double cosZ = Math.cos(halfZ);
+        final double sinX = Math.sin(halfX);
+        final double sinY = Math.sin(halfY);
+        final double sinZ = Math.sin(halfZ);
+        final double sinXCosY = sinX * cosY;
+        final double cosXSinY = cosX * sinY;
+        final double cosXCosY = cosX * cosY;
+        final double sinXSinY = sinX * sinY;
+        final double lx = sinXCosY * cosZ - cosXSinY * sinZ;
+        final double ly = cosXSinY * cosZ + sinXCosY * sinZ;
+        final double lz = cosXCosY * sinZ - sinXSinY * cosZ;
+        final double lw = cosXCosY * cosZ + sinXSinY * sinZ;
+
+        // global rotation = parent rotation * local rotation
+        final int rotationIndex = index * 4;
+        rotations[rotationIndex] = px * lw + pw * lx + py * lz - pz * ly;
+        rotations[rotationIndex + 1] = py * lw + pw * ly + pz * lx - px * lz;
+        rotations[rotationIndex + 2] = pz * lw + pw * lz + px * ly - py * lx;
+        rotations[rotationIndex + 3] = pw * lw - px * lx - py * ly - pz * lz;
+
+        // global position = parent rotation * ((rest position + frame position) * global scale) + parent position
+        final float vx = (frames[frame] + skeleton.restPosition(index, 0)) * scaleX;
+        final float vy = (frames[frame + 1] + skeleton.restPosition(index, 1)) * scaleY;
+        final float vz = (frames[frame + 2] + skeleton.restPosition(index, 2)) * scaleZ;
+        final double xx = px * px;
+        final double xy = px * py;
+        final double xz = px * pz;
+        final double xw = px * pw;
+        final double yy = py * py;
+        final double yz = py * pz;
+        final double yw = py * pw;
+        final double zz = pz * pz;
+        final double zw = pz * pw;
+        // From JOML under the MIT License, see Quaternion#transform
+        positions[vectorIndex] = (float) Math.fma(Math.fma(-2, yy + zz, 1), vx, Math.fma(2 * (xy - zw), vy, (2 * (xz + yw)) * vz)) + positions[parentIndex];
+        positions[vectorIndex + 1] = (float) Math.fma(2 * (xy + zw), vx, Math.fma(Math.fma(-2, xx + zz, 1), vy, (2 * (yz - xw)) * vz)) + positions[parentIndex + 1];
+        positions[vectorIndex + 2] = (float) Math.fma(2 * (xz - yw), vx, Math.fma(2 * (yz + xw), vy, Math.fma(-2, xx + yy, 1) * vz)) + positions[parentIndex + 2];
+    }
+
+    /**
+     * Computes the global transform of every bone by applying the root
+     * transform of this pose to the given {@code modelSpace} pose, which
+     * must have been computed using the identity root transform.
+     *
+     * <p>Equivalent to computing every bone again, but does not depend on
+     * the bone frames, so that a same model-space pose can be shared.</p>
+     */
+    void compose(final @NotNull Pose modelSpace) {
+        final int rootIndex = root * 3;
+        final int rootRotationIndex = root * 4;
+        final double px = rotations[rootRotationIndex];
+        final double py = rotations[rootRotationIndex + 1];
+        final double pz = rotations[rootRotationIndex + 2];
+        final double pw = rotations[rootRotationIndex + 3];
+        final double xx = px * px;
+        final double xy = px * py;
+        final double xz = px * pz;
+        final double xw = px * pw;
+        final double yy = py * py;
+        final double yz = py * pz;
+        final double yw = py * pw;
+        final double zz = pz * pz;
+        final double zw = pz * pw;
+
+        final float[] modelPositions = modelSpace.positions;
+        final double[] modelRotations = modelSpace.rotations;
+        System.arraycopy(modelSpace.scales, 0, scales, 0, size * 3);
+        Arrays.fill(dirty, 0, size, true);
+        Arrays.fill(changed, true);
+
+        for (int index = 0; index < size; index++) {
+            // global rotation = root rotation * model rotation
+            final int rotationIndex = index * 4;
+            final double lx = modelRotations[rotationIndex];
+            final double ly = modelRotations[rotationIndex + 1];
+            final double lz = modelRotations[rotationIndex + 2];
+            final double lw = modelRotations[rotationIndex + 3];
+            rotations[rotationIndex] = px * lw + pw * lx + py * lz - pz * ly;
+            rotations[rotationIndex + 1] = py * lw + pw * ly + pz * lx - px * lz;
+            rotations[rotationIndex + 2] = pz * lw + pw * lz + px * ly - py * lx;
+            rotations[rotationIndex + 3] = pw * lw - px * lx - py * ly - pz * lz;
+
+            // global position = root rotation * model position + root position
+            final int vectorIndex = index * 3;
+            final float vx = modelPositions[vectorIndex];
+            final float vy = modelPositions[vectorIndex + 1];
+            final float vz = modelPositions[vectorIndex + 2];
+            positions[vectorIndex] = (float) Math.fma(Math.fma(-2, yy + zz, 1), vx, Math.fma(2 * (xy - zw), vy, (2 * (xz + yw)) * vz)) + positions[rootIndex];
+            positions[vectorIndex + 1] = (float) Math.fma(2 * (xy + zw), vx, Math.fma(Math.fma(-2, xx + zz, 1), vy, (2 * (yz - xw)) * vz)) + positions[rootIndex + 1];
+            positions[vectorIndex + 2] = (float) Math.fma(2 * (xz - yw), vx, Math.fma(2 * (yz + xw), vy, Math.fma(-2, xx + yy, 1) * vz)) + positions[rootIndex + 2];
+        }
+    }
+
+    /**
+     * Determines whether the root transform changed during
+     * the last evaluation
+     */
+    boolean rootChanged() {
+        return dirty[root];
+    }
+
+    /**
+     * Determines whether the transform of the bone at the given
+     * {@code index} changed since it was last applied
+     */
+    boolean changed(final int index) {
+        return changed[index];
+    }
+
+    /**
+     * Applies the computed transform of the bone at the
+     * given {@code index} to the given bone view.
+     */
+    void apply(final int index, final @NotNull AbstractBoneView boneView) {
+        changed[index] = false;
+        final int vectorIndex = index * 3;
+        final int rotationIndex = index * 4;
+        boneView.update(
+                positions[vectorIndex], positions[vectorIndex + 1], positions[vectorIndex + 2],
+                rotations[rotationIndex], rotations[rotationIndex + 1], rotations[rotationIndex + 2], rotations[rotationIndex + 3],
+                scales[vectorIndex], scales[vectorIndex + 1], scales[vectorIndex + 2]
+        );
+    }
+
+    /**
+     * Makes the given bone view interpolate, by itself, towards the transform
+     * of the bone at the given {@code index} in the given {@code modelSpace}
+     * pose (see {@link #compose(Pose)}), under the root transform of this pose.
+     *
+     * @return True if the bone view will interpolate, see
+     * {@link AbstractBoneView#interpolate(float, float, float, double, double, double, double, float, float, float, int)}
+     */
+    boolean interpolate(final int index, final @NotNull Pose modelSpace, final @NotNull AbstractBoneView boneView, final int ticks) {
+        final int rootIndex = root * 3;
+        final int rootRotationIndex = root * 4;
+        final double px = rotations[rootRotationIndex];
+        final double py = rotations[rootRotationIndex + 1];
+        final double pz = rotations[rootRotationIndex + 2];
+        final double pw = rotations[rootRotationIndex + 3];
+
+        // global rotation = root rotation * model rotation
+        final int rotationIndex = index * 4;
+        final double lx = modelSpace.rotations[rotationIndex];
+        final double ly = modelSpace.rotations[rotationIndex + 1];
+        final double lz = modelSpace.rotations[rotationIndex + 2];
+        final double lw = modelSpace.rotations[rotationIndex + 3];
+
+        // global position = root rotation * model position + root position
+        final int vectorIndex = index * 3;
+        final float vx = modelSpace.positions[vectorIndex];
+        final float vy = modelSpace.positions[vectorIndex + 1];
+        final float vz = modelSpace.positions[vectorIndex + 2];
+        final double xx = px * px;
+        final double xy = px * py;
+        final double xz = px * pz;
+        final double xw = px * pw;
+        final double yy = py * py;
+        final double yz = py * pz;
+        final double yw = py * pw;
+        final double zz = pz * pz;
+        final double zw = pz * pw;
+
+        final boolean interpolating = boneView.interpolate(
+                (float) Math.fma(Math.fma(-2, yy + zz, 1), vx, Math.fma(2 * (xy - zw), vy, (2 * (xz + yw)) * vz)) + positions[rootIndex],
+                (float) Math.fma(2 * (xy + zw), vx, Math.fma(Math.fma(-2, xx + zz, 1), vy, (2 * (yz - xw)) * vz)) + positions[rootIndex + 1],
+                (float) Math.fma(2 * (xz - yw), vx, Math.fma(2 * (yz + xw), vy, Math.fma(-2, xx + yy, 1) * vz)) + positions[rootIndex + 2],
+                px * lw + pw * lx + py * lz - pz * ly,
+                py * lw + pw * ly + pz * lx - px * lz,
+                pz * lw + pw * lz + px * ly - py * lx,
+                pw * lw - px * lx - py * ly - pz * lz,
+                modelSpace.scales[vectorIndex], modelSpace.scales[vectorIndex + 1], modelSpace.scales[vectorIndex + 2],
+                ticks
+        );
+        if (interpolating) {
+            changed[index] = false;
+        }
+        return interpolating;
+    }
+
+}
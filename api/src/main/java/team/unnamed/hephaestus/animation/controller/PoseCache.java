@@ -0,0 +1,76 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.controller;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.hephaestus.Skeleton;
+
+/**
+ * A cache of evaluated model-space poses, shared by all the
+ * {@link AnimationPlayer animation players} of a same model.
+ *
+ * <p>Poses are keyed by animation identity and tick, so that
+ * views playing the same animation in lockstep evaluate it
+ * only once, and then just apply their own root transform.</p>
+ *
+ * <p>Only the animations of the model are cached, and only while
+ * a view plays a single animation (i.e. no blending between
+ * animations)</p>
+ *
+ * <p>It also holds the linear spans of the bones during those
+ * animations, used when bone views interpolate by themselves.</p>
+ *
+ * <p>Its only implementation is created by {@link #poseCache(Skeleton)}.</p>
+ *
+ * @since 1.0.0
+ */
+public sealed interface PoseCache permits PoseCacheImpl {
+
+    /**
+     * Creates a new, empty pose cache for the given skeleton
+     *
+     * @param skeleton The skeleton
+     * @return The created pose cache
+     * @since 1.0.0
+     */
+    static @NotNull PoseCache poseCache(final @NotNull Skeleton skeleton) {
+        return new PoseCacheImpl(skeleton);
+    }
+
+    /**
+     * Returns the skeleton whose poses are cached
+     *
+     * @return The skeleton
+     * @since 1.0.0
+     */
+    @NotNull Skeleton skeleton();
+
+    /**
+     * Removes all the cached poses and spans
+     *
+     * @since 1.0.0
+     */
+    void clear();
+
+}
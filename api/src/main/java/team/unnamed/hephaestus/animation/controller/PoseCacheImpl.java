@@ -0,0 +1,99 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.controller;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.hephaestus.Skeleton;
+import team.unnamed.hephaestus.animation.Animation;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Objects.requireNonNull;
+
+final class PoseCacheImpl implements PoseCache {
+
+    private final Skeleton skeleton;
+
+    // only accessed when an animation starts, not on every tick, only the
+    // resolved animations are cached, which the skeleton already holds
+    private final Map<Animation, AtomicReferenceArray<CachedPose>> entries = new IdentityHashMap<>();
+    private final Map<Animation, KeyframeSpans> keyframeSpans = new IdentityHashMap<>();
+
+    PoseCacheImpl(final @NotNull Skeleton skeleton) {
+        this.skeleton = requireNonNull(skeleton, "skeleton");
+    }
+
+    @Override
+    public @NotNull Skeleton skeleton() {
+        return skeleton;
+    }
+
+    /**
+     * Returns the cached poses for the given animation, by tick, or
+     * null if the animation can not be cached (e.g. it is a synthetic
+     * animation, which is never shared between views)
+     */
+    synchronized @Nullable AtomicReferenceArray<CachedPose> entry(final @NotNull Animation animation) {
+        if (animation.length() <= 0 || !skeleton.resolved(animation)) {
+            return null;
+        }
+        return entries.computeIfAbsent(animation, k -> new AtomicReferenceArray<>(k.length()));
+    }
+
+    /**
+     * Returns the linear spans of the bones during the given animation,
+     * analyzed the first time they are requested, or null if the
+     * animation can not be analyzed (e.g. it is a synthetic animation)
+     */
+    synchronized @Nullable KeyframeSpans keyframeSpans(final @NotNull Animation animation) {
+        if (animation.length() <= 1 || !skeleton.resolved(animation)) {
+            return null;
+        }
+        return keyframeSpans.computeIfAbsent(animation, k -> KeyframeSpans.analyze(skeleton, k));
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        keyframeSpans.clear();
+    }
+
+    /**
+     * An evaluated, immutable, model-space pose and the
+     * frames it was evaluated from.
+     */
+    static final class CachedPose {
+        final float[] frames;
+        final Pose pose;
+
+        CachedPose(final float @NotNull [] frames, final @NotNull Pose pose) {
+            this.frames = frames;
+            this.pose = pose;
+        }
+    }
+
+}
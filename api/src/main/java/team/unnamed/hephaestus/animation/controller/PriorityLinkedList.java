@@ -155,6 +155,15 @@ class PriorityLinkedList<E> implements Iterable<E> {
         return removeFirstMatching(e -> e.equals(value));
     }
 
+    /**
+     * Returns the first node of this list, or null if
+     * empty. Nodes can be walked using {@link Node#next},
+     * which does not allocate any iterator.
+     */
+    @Nullable Node<E> head() {
+        return head;
+    }
+
     boolean isEmpty() {
         return head == null;
     }
@@ -201,7 +210,7 @@ class PriorityLinkedList<E> implements Iterable<E> {
         return builder.toString();
     }
 
-    private static class Node<E> {
+    static class Node<E> {
         E value;
         int priority;
         Node<E> next;
@@ -24,7 +24,9 @@
 package team.unnamed.hephaestus.animation.controller;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.hephaestus.Skeleton;
 import team.unnamed.hephaestus.animation.Animation;
 import team.unnamed.hephaestus.animation.interpolation.Interpolators;
 import team.unnamed.hephaestus.animation.timeline.Timeline;
@@ -32,14 +34,13 @@ import team.unnamed.hephaestus.animation.timeline.bone.BoneFrame;
 import team.unnamed.hephaestus.animation.timeline.bone.BoneTimeline;
 import team.unnamed.hephaestus.animation.timeline.effect.EffectsTimeline;
 
-import java.util.Map;
-
 final class SyntheticAnimations {
     private SyntheticAnimations() {
     }
 
     public static @NotNull Animation transitionTo(
-            final @NotNull Map<String, BoneFrame> lastFrames,
+            final @NotNull Skeleton skeleton,
+            final @Nullable BoneFrame @NotNull [] lastFrames,
             final @NotNull Animation to,
             final int duration
     ) {
@@ -49,12 +50,16 @@ final class SyntheticAnimations {
                 .loopMode(Animation.LoopMode.HOLD)
                 .effectsTimeline(EffectsTimeline.empty().build());
 
-        for (Map.Entry<String, BoneFrame> entry : lastFrames.entrySet()) {
-            String boneName = entry.getKey();
-            BoneFrame lastFrame = entry.getValue();
+        final BoneTimeline[] nextTimelines = skeleton.timelines(to);
+
+        for (int index = 0; index < lastFrames.length; index++) {
+            BoneFrame lastFrame = lastFrames[index];
+            if (lastFrame == null) {
+                continue;
+            }
 
             // put last states (initial from next animation)
-            BoneTimeline nextTimeline = to.timelines().get(boneName);
+            BoneTimeline nextTimeline = nextTimelines[index];
             BoneTimeline.Builder timeline = BoneTimeline.boneTimeline();
 
             if (nextTimeline == null) {
@@ -104,7 +109,7 @@ final class SyntheticAnimations {
                 );
             }
 
-            transitionAnimationBuilder.timeline(boneName, timeline.build());
+            transitionAnimationBuilder.timeline(skeleton.bone(index).name(), timeline.build());
         }
 
         return transitionAnimationBuilder.build();
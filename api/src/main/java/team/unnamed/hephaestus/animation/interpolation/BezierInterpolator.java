@@ -25,7 +25,6 @@ package team.unnamed.hephaestus.animation.interpolation;
 
 import org.jetbrains.annotations.NotNull;
 import team.unnamed.creative.base.Axis3D;
-import team.unnamed.creative.base.Vector2Float;
 import team.unnamed.creative.base.Vector3Float;
 import team.unnamed.hephaestus.animation.timeline.KeyFrame;
 import team.unnamed.hephaestus.animation.timeline.KeyFrameBezierAttachment;
@@ -55,8 +54,10 @@ final class BezierInterpolator implements KeyFrameInterpolator<Vector3Float> {
 
         final float timeGap = to.time() - from.time();
 
-        // points[division][axis]
-        final Vector2Float[][] points = new Vector2Float[divisions][AXES.length];
+        // flat tables, [axis * divisions + division]; times are
+        // monotonic per axis, since handle times are clamped
+        final float[] times = new float[divisions * AXES.length];
+        final float[] values = new float[divisions * AXES.length];
 
         for (final Axis3D axis : AXES) {
             final float timePoint0 = from.time();
@@ -69,6 +70,7 @@ final class BezierInterpolator implements KeyFrameInterpolator<Vector3Float> {
             final float valuePoint3 = to.value().get(axis);
             final float valuePoint2 = valuePoint3 + toBezier.leftValue().get(axis);
 
+            final int offset = axis.ordinal() * divisions;
             for (int i = 0; i < divisions; i++) {
                 final double t = (double) i / (divisions - 1);
                 final double s2 = t * t;
@@ -81,20 +83,12 @@ final class BezierInterpolator implements KeyFrameInterpolator<Vector3Float> {
                 final double gotTime = k3 * timePoint0 + 3 * k2 * t * timePoint1 + 3 * k * s2 * timePoint2 + s3 * timePoint3;
                 final double value = k3 * valuePoint0 + 3 * k2 * t * valuePoint1 + 3 * k * s2 * valuePoint2 + s3 * valuePoint3;
 
-                points[i][axis.ordinal()] = new Vector2Float((float) gotTime, (float) value);
+                times[offset + i] = (float) gotTime;
+                values[offset + i] = (float) value;
             }
         }
 
-        return t -> {
-            final double k = 1 - t;
-            final float time = (float) (from.time() * k + to.time() * t);
-
-            float x = findClosestAndLerp(points, time, Axis3D.X);
-            float y = findClosestAndLerp(points, time, Axis3D.Y);
-            float z = findClosestAndLerp(points, time, Axis3D.Z);
-
-            return new Vector3Float(x, y, z);
-        };
+        return new BezierInterpolation(from.time(), to.time(), divisions, times, values);
     }
 
     @Override
@@ -113,45 +107,59 @@ final class BezierInterpolator implements KeyFrameInterpolator<Vector3Float> {
         return Math.max(min, Math.min(max, value));
     }
 
-    private static float findClosestAndLerp(final Vector2Float[][] points, final float time, final Axis3D axis) {
-        float closestDistance = Float.MAX_VALUE;
+    static final class BezierInterpolation implements Interpolation<Vector3Float> {
+        private final int fromTime;
+        private final int toTime;
+        private final int divisions;
+        private final float[] times;
+        private final float[] values;
+
+        BezierInterpolation(final int fromTime, final int toTime, final int divisions, final float[] times, final float[] values) {
+            this.fromTime = fromTime;
+            this.toTime = toTime;
+            this.divisions = divisions;
+            this.times = times;
+            this.values = values;
+        }
 
-        float closest = Float.MAX_VALUE;
-        float closestTime = Float.MAX_VALUE;
+        @Override
+        public @NotNull Vector3Float interpolate(final double progress) {
+            final double k = 1 - progress;
+            final float time = (float) (fromTime * k + toTime * progress);
+            return new Vector3Float(
+                    lookup(time, 0),
+                    lookup(time, divisions),
+                    lookup(time, divisions * 2)
+            );
+        }
 
-        for (final Vector2Float[] byAxis : points) {
-            Vector2Float vector = byAxis[axis.ordinal()];
-            final float t = vector.x(); // time for this point
-            final float value = vector.y(); // value for this point
+        // binary searches the samples surrounding the given time
+        // and linearly interpolates between them
+        private float lookup(final float time, final int offset) {
+            int low = offset;
+            int high = offset + divisions - 1;
 
-            final float distance = Math.abs(time - t);
-            if (distance < closestDistance) {
-                closest = value;
-                closestTime = t;
-                closestDistance = distance;
+            if (time <= times[low]) {
+                return values[low];
+            }
+            if (time >= times[high]) {
+                return values[high];
             }
-        }
 
-        // find second closest
-        closestDistance = Float.MAX_VALUE;
-        float secondClosest = Float.MAX_VALUE;
-        float secondClosestTime = Float.MAX_VALUE;
-
-        for (final Vector2Float[] byAxis : points) {
-            Vector2Float vector = byAxis[axis.ordinal()];
-            final float t = vector.x(); // time for this point
-            final float value = vector.y(); // value for this point
-
-            final float distance = Math.abs(time - t);
-            if (distance < closestDistance && t != closestTime) {
-                secondClosest = value;
-                secondClosestTime = t;
-                closestDistance = distance;
+            // invariant: times[low] < time < times[high]
+            while (high - low > 1) {
+                final int middle = (low + high) >>> 1;
+                if (times[middle] <= time) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
             }
-        }
 
-        // linear lerp between these closest points (lerp method doesn't exist)
-        final float t = clamp((time - closestTime) / (secondClosestTime - closestTime), 0, 1);
-        return closest + (secondClosest - closest) * t;
+            final float lowTime = times[low];
+            final float highTime = times[high];
+            final float t = highTime == lowTime ? 0 : (time - lowTime) / (highTime - lowTime);
+            return values[low] + (values[high] - values[low]) * t;
+        }
     }
 }
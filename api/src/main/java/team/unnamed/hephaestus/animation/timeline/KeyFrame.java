@@ -38,7 +38,8 @@ public final class KeyFrame<T> implements Comparable<KeyFrame<T>> {
     private final int time;
     private final T value;
     private final KeyFrameInterpolator<T> interpolator;
-    private final Map<Class<? extends KeyFrameAttachment>, KeyFrameAttachment> attachments = new HashMap<>();
+    // created when the first attachment is added, most keyframes have none
+    private @Nullable Map<Class<? extends KeyFrameAttachment>, KeyFrameAttachment> attachments;
 
     public KeyFrame(int time, T value, @Nullable KeyFrameInterpolator<T> interpolator) {
         this.time = time;
@@ -46,6 +47,11 @@ public final class KeyFrame<T> implements Comparable<KeyFrame<T>> {
         this.interpolator = interpolator;
     }
 
+    KeyFrame(int time, T value, @Nullable KeyFrameInterpolator<T> interpolator, @Nullable Map<Class<? extends KeyFrameAttachment>, KeyFrameAttachment> attachments) {
+        this(time, value, interpolator);
+        this.attachments = attachments == null ? null : new HashMap<>(attachments);
+    }
+
     public int time() {
         return time;
     }
@@ -73,6 +79,9 @@ public final class KeyFrame<T> implements Comparable<KeyFrame<T>> {
     public <TAttachment extends KeyFrameAttachment> void attachment(final @NotNull Class<TAttachment> type, final @NotNull TAttachment attachment) {
         requireNonNull(type, "type");
         requireNonNull(attachment, "attachment");
+        if (attachments == null) {
+            attachments = new HashMap<>(2);
+        }
         attachments.put(type, attachment);
     }
 
@@ -88,7 +97,11 @@ public final class KeyFrame<T> implements Comparable<KeyFrame<T>> {
      */
     public <TAttachment extends KeyFrameAttachment> @Nullable TAttachment attachment(final @NotNull Class<TAttachment> type) {
         requireNonNull(type, "type");
-        return type.cast(attachments.get(type));
+        return attachments == null ? null : type.cast(attachments.get(type));
+    }
+
+    @Nullable Map<Class<? extends KeyFrameAttachment>, KeyFrameAttachment> attachments() {
+        return attachments;
     }
 
     @Override
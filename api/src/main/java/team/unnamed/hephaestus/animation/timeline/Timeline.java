@@ -27,6 +27,7 @@ import net.kyori.examination.Examinable;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Unmodifiable;
+import team.unnamed.hephaestus.animation.interpolation.Interpolation;
 import team.unnamed.hephaestus.animation.interpolation.Interpolator;
 import team.unnamed.hephaestus.animation.interpolation.KeyFrameInterpolator;
 import team.unnamed.hephaestus.animation.timeline.playhead.Playhead;
@@ -54,6 +55,56 @@ public interface Timeline<T> extends Examinable {
 
     @NotNull @Unmodifiable SortedSet<KeyFrame<T>> keyFrames();
 
+    /**
+     * Returns the amount of keyframes in this timeline
+     *
+     * @return The keyframe count
+     * @since 1.0.0
+     */
+    int size();
+
+    /**
+     * Returns the time of the keyframe at the given
+     * {@code index} (in {@link #keyFrames()} order)
+     *
+     * @param index The keyframe index
+     * @return The keyframe time, in ticks
+     * @throws IndexOutOfBoundsException If there is no keyframe
+     * at the given index
+     * @since 1.0.0
+     */
+    int time(final int index);
+
+    /**
+     * Returns the value of the keyframe at the given
+     * {@code index} (in {@link #keyFrames()} order)
+     *
+     * @param index The keyframe index
+     * @return The keyframe value
+     * @throws IndexOutOfBoundsException If there is no keyframe
+     * at the given index
+     * @since 1.0.0
+     */
+    @NotNull T value(final int index);
+
+    /**
+     * Returns the interpolation between the keyframe at the given
+     * {@code index} (in {@link #keyFrames()} order) and the next
+     * keyframe.
+     *
+     * <p>Interpolations are computed once per keyframe pair and
+     * shared by all the playheads of this timeline, so expensive
+     * interpolations (e.g. Bézier curves) are not recomputed for
+     * every playhead</p>
+     *
+     * @param index The index of the start keyframe
+     * @return The interpolation between the keyframe and the next one
+     * @throws IndexOutOfBoundsException If there is no keyframe after
+     * the keyframe at the given index
+     * @since 1.0.0
+     */
+    @NotNull Interpolation<T> interpolation(final int index);
+
     @Contract("-> new")
     Playhead<T> createPlayhead();
 
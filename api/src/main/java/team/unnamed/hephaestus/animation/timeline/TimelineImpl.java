@@ -24,11 +24,15 @@
 package team.unnamed.hephaestus.animation.timeline;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
-import team.unnamed.hephaestus.animation.interpolation.Interpolator;
+import team.unnamed.hephaestus.animation.interpolation.Interpolation;
+import team.unnamed.hephaestus.animation.interpolation.Interpolators;
 import team.unnamed.hephaestus.animation.interpolation.KeyFrameInterpolator;
 import team.unnamed.hephaestus.animation.timeline.playhead.Playhead;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
@@ -38,12 +42,51 @@ final class TimelineImpl<T> implements Timeline<T> {
 
     private final T initialValue;
     private final KeyFrameInterpolator<T> defaultInterpolator;
-    private final SortedSet<KeyFrame<T>> keyFrames;
 
+    // keyframes in order, stored as parallel arrays
+    private final int[] times;
+    private final T[] values;
+    // null entries use the default interpolator
+    private final KeyFrameInterpolator<T>[] interpolators;
+    // side table for keyframe attachments, null if
+    // no keyframe has attachments, or null entries
+    // for keyframes without attachments
+    private final Map<Class<? extends KeyFrameAttachment>, KeyFrameAttachment> @Nullable [] attachments;
+
+    // interpolations between keyframe i and keyframe i + 1, computed
+    // lazily, may be computed twice by concurrent playheads, which is
+    // fine since interpolations are immutable
+    private final Interpolation<T>[] interpolations;
+
+    @SuppressWarnings("unchecked")
     TimelineImpl(T initialValue, KeyFrameInterpolator<T> defaultInterpolator, SortedSet<KeyFrame<T>> keyFrames) {
         this.initialValue = requireNonNull(initialValue, "initial");
         this.defaultInterpolator = requireNonNull(defaultInterpolator, "defaultInterpolator");
-        this.keyFrames = requireNonNull(keyFrames, "keyFrames");
+        requireNonNull(keyFrames, "keyFrames");
+
+        final int size = keyFrames.size();
+        this.times = new int[size];
+        this.values = (T[]) new Object[size];
+        this.interpolators = new KeyFrameInterpolator[size];
+        Map<Class<? extends KeyFrameAttachment>, KeyFrameAttachment>[] attachments = null;
+
+        int index = 0;
+        for (final KeyFrame<T> keyFrame : keyFrames) {
+            times[index] = keyFrame.time();
+            values[index] = keyFrame.value();
+            interpolators[index] = keyFrame.interpolator();
+            final var keyFrameAttachments = keyFrame.attachments();
+            if (keyFrameAttachments != null && !keyFrameAttachments.isEmpty()) {
+                if (attachments == null) {
+                    attachments = new Map[size];
+                }
+                attachments[index] = Map.copyOf(keyFrameAttachments);
+            }
+            index++;
+        }
+
+        this.attachments = attachments;
+        this.interpolations = new Interpolation[Math.max(0, size - 1)];
     }
 
     @Override
@@ -58,7 +101,65 @@ final class TimelineImpl<T> implements Timeline<T> {
 
     @Override
     public @NotNull @Unmodifiable SortedSet<KeyFrame<T>> keyFrames() {
-        return keyFrames;
+        // keyframes are not kept, they are created from the arrays
+        final SortedSet<KeyFrame<T>> keyFrames = new TreeSet<>();
+        for (int index = 0; index < times.length; index++) {
+            keyFrames.add(keyFrame(index));
+        }
+        return Collections.unmodifiableSortedSet(keyFrames);
+    }
+
+    @Override
+    public int size() {
+        return times.length;
+    }
+
+    @Override
+    public int time(final int index) {
+        return times[index];
+    }
+
+    @Override
+    public @NotNull T value(final int index) {
+        return values[index];
+    }
+
+    private @NotNull KeyFrame<T> keyFrame(final int index) {
+        return new KeyFrame<>(times[index], values[index], interpolators[index], attachments == null ? null : attachments[index]);
+    }
+
+    private @NotNull KeyFrameInterpolator<T> interpolator(final int index) {
+        final KeyFrameInterpolator<T> interpolator = interpolators[index];
+        return interpolator == null ? defaultInterpolator : interpolator;
+    }
+
+    @Override
+    public @NotNull Interpolation<T> interpolation(final int index) {
+        Interpolation<T> interpolation = interpolations[index];
+        if (interpolation == null) {
+            interpolation = computeInterpolation(index);
+            interpolations[index] = interpolation;
+        }
+        return interpolation;
+    }
+
+    private @NotNull Interpolation<T> computeInterpolation(final int index) {
+        final KeyFrame<T> from = keyFrame(index);
+        final KeyFrame<T> to = keyFrame(index + 1);
+        final KeyFrame<T> after = index + 2 < times.length ? keyFrame(index + 2) : null;
+        final KeyFrame<T> before;
+        if (index > 0) {
+            before = keyFrame(index - 1);
+        } else if (from.time() > 0) {
+            // playheads add a virtual keyframe at time 0 holding
+            // the first keyframe value, which precedes it
+            before = new KeyFrame<>(0, from.value(), Interpolators.always(from.value()));
+        } else {
+            before = null;
+        }
+        return interpolator(index)
+                .combineRight(interpolator(index + 1))
+                .interpolation(before, from, to, after);
     }
 
     @Override
@@ -71,7 +172,7 @@ final class TimelineImpl<T> implements Timeline<T> {
         return "TimelineImpl{" +
                 "initialValue=" + initialValue +
                 ", defaultInterpolator=" + defaultInterpolator +
-                ", keyFrames=" + keyFrames +
+                ", keyFrames=" + keyFrames() +
                 '}';
     }
 
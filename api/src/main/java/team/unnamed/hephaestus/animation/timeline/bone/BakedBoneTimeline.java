@@ -0,0 +1,80 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.timeline.bone;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link BoneTimeline} whose values have been sampled
+ * once per tick into flat arrays, so that playing it back
+ * is a simple index lookup instead of an interpolation.
+ *
+ * <p>The source timelines are still accessible through
+ * {@link #positions()}, {@link #rotations()} and
+ * {@link #scales()}.</p>
+ *
+ * @see BoneTimeline#baked(BoneTimeline, int)
+ * @since 1.0.0
+ */
+public interface BakedBoneTimeline extends BoneTimeline {
+
+    /**
+     * Returns the amount of sampled ticks. Ticks after
+     * this length hold the last sampled value
+     *
+     * @return The baked length, in ticks
+     * @since 1.0.0
+     */
+    int length();
+
+    /**
+     * Returns the frame at the given {@code tick}, ticks
+     * outside the baked range are clamped to it
+     *
+     * <p>Frames are immutable, so the frame of each tick is
+     * created once and returned by every later call.</p>
+     *
+     * @param tick The tick
+     * @return The frame at the given tick
+     * @since 1.0.0
+     */
+    @NotNull BoneFrame frame(final int tick);
+
+    /**
+     * Writes the frame at the given {@code tick} into the given
+     * array, as {@code [px, py, pz, rx, ry, rz, sx, sy, sz]} starting
+     * at {@code offset}, without allocating. Ticks outside the baked
+     * range are clamped to it
+     *
+     * @param tick The tick
+     * @param destination The destination array
+     * @param offset The index of the first written component
+     * @since 1.0.0
+     */
+    void frame(final int tick, final float @NotNull [] destination, final int offset);
+
+    @Override
+    @NotNull BoneTimelinePlayhead createPlayhead();
+
+}
@@ -0,0 +1,164 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.timeline.bone;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.hephaestus.animation.timeline.Timeline;
+import team.unnamed.hephaestus.animation.timeline.playhead.Playhead;
+
+import static java.util.Objects.requireNonNull;
+
+final class BakedBoneTimelineImpl implements BakedBoneTimeline {
+
+    private final BoneTimeline source;
+    private final int length;
+
+    // flat [x0, y0, z0, x1, y1, z1, ...] arrays, one entry per tick
+    private final float[] positions;
+    private final float[] rotations;
+    private final float[] scales;
+
+    // frames created by frame(int), by tick, they are immutable
+    // so racing threads at most create the same frame twice
+    private final BoneFrame[] frames;
+
+    private BakedBoneTimelineImpl(
+            final @NotNull BoneTimeline source,
+            final int length,
+            final float @NotNull [] positions,
+            final float @NotNull [] rotations,
+            final float @NotNull [] scales
+    ) {
+        this.source = source;
+        this.length = length;
+        this.positions = positions;
+        this.rotations = rotations;
+        this.scales = scales;
+        this.frames = new BoneFrame[length];
+    }
+
+    static @NotNull BakedBoneTimeline bake(final @NotNull BoneTimeline source, final int length) {
+        requireNonNull(source, "source");
+        if (length <= 0) {
+            throw new IllegalArgumentException("Length must be positive, got " + length);
+        }
+        return new BakedBoneTimelineImpl(
+                source,
+                length,
+                sample(source.positions(), length),
+                sample(source.rotations(), length),
+                sample(source.scales(), length)
+        );
+    }
+
+    private static float @NotNull [] sample(final @NotNull Timeline<Vector3Float> timeline, final int length) {
+        final float[] values = new float[length * 3];
+        final Playhead<Vector3Float> playhead = timeline.createPlayhead();
+        for (int tick = 0; tick < length; tick++) {
+            final Vector3Float value = playhead.next();
+            final int index = tick * 3;
+            values[index] = value.x();
+            values[index + 1] = value.y();
+            values[index + 2] = value.z();
+        }
+        return values;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public @NotNull BoneFrame frame(final int tick) {
+        final int clamped = Math.max(0, Math.min(tick, length - 1));
+        BoneFrame frame = frames[clamped];
+        if (frame == null) {
+            final int index = clamped * 3;
+            frame = new BoneFrame(
+                    new Vector3Float(positions[index], positions[index + 1], positions[index + 2]),
+                    new Vector3Float(rotations[index], rotations[index + 1], rotations[index + 2]),
+                    new Vector3Float(scales[index], scales[index + 1], scales[index + 2])
+            );
+            frames[clamped] = frame;
+        }
+        return frame;
+    }
+
+    @Override
+    public void frame(final int tick, final float @NotNull [] destination, final int offset) {
+        final int index = Math.max(0, Math.min(tick, length - 1)) * 3;
+        System.arraycopy(positions, index, destination, offset, 3);
+        System.arraycopy(rotations, index, destination, offset + 3, 3);
+        System.arraycopy(scales, index, destination, offset + 6, 3);
+    }
+
+    @Override
+    public @NotNull Timeline<Vector3Float> positions() {
+        return source.positions();
+    }
+
+    @Override
+    public @NotNull Timeline<Vector3Float> rotations() {
+        return source.rotations();
+    }
+
+    @Override
+    public @NotNull Timeline<Vector3Float> scales() {
+        return source.scales();
+    }
+
+    @Override
+    public @NotNull BoneTimelinePlayhead createPlayhead() {
+        return new BakedPlayhead();
+    }
+
+    private final class BakedPlayhead implements BoneTimelinePlayhead {
+
+        private int tick = -1;
+
+        @Override
+        public int tick() {
+            return tick;
+        }
+
+        @Override
+        public @NotNull BoneFrame next() {
+            return frame(++tick);
+        }
+
+        @Override
+        public void next(final float @NotNull [] destination, final int offset) {
+            frame(++tick, destination, offset);
+        }
+
+        @Override
+        public void seek(final int tick) {
+            this.tick = tick - 1;
+        }
+
+    }
+
+}
@@ -42,6 +42,27 @@ public interface BoneTimeline {
         return new BoneTimelineImpl.BuilderImpl();
     }
 
+    /**
+     * Creates a baked version of the given {@code timeline}, which
+     * samples its positions, rotations and scales once per tick, for
+     * the given {@code length} (in ticks), so that playback does not
+     * need to interpolate anything
+     *
+     * <p>If the given timeline is already baked with the same length,
+     * it is returned as-is</p>
+     *
+     * @param timeline The source timeline
+     * @param length The amount of ticks to sample, must be positive
+     * @return The baked timeline
+     * @since 1.0.0
+     */
+    static @NotNull BakedBoneTimeline baked(final @NotNull BoneTimeline timeline, final int length) {
+        if (timeline instanceof BakedBoneTimeline baked && baked.length() == length) {
+            return baked;
+        }
+        return BakedBoneTimelineImpl.bake(timeline, length);
+    }
+
     @NotNull Timeline<Vector3Float> positions();
 
     @NotNull Timeline<Vector3Float> rotations();
@@ -49,7 +70,7 @@ public interface BoneTimeline {
     @NotNull Timeline<Vector3Float> scales();
 
     default @NotNull BoneTimelinePlayhead createPlayhead() {
-        return new BoneTimelinePlayhead(this);
+        return new BoneTimelinePlayheadImpl(this);
     }
 
     interface Builder {
@@ -23,35 +23,70 @@
  */
 package team.unnamed.hephaestus.animation.timeline.bone;
 
+import org.jetbrains.annotations.NotNull;
 import team.unnamed.creative.base.Vector3Float;
-import team.unnamed.hephaestus.animation.timeline.playhead.Playhead;
 
-public class BoneTimelinePlayhead {
+/**
+ * Represents a playhead over a {@link BoneTimeline}, it
+ * produces a {@link BoneFrame} for every animation tick.
+ *
+ * @since 1.0.0
+ */
+public interface BoneTimelinePlayhead {
 
-    private final Playhead<Vector3Float> positions;
-    private final Playhead<Vector3Float> rotations;
-    private final Playhead<Vector3Float> scales;
-    private final BoneTimeline boneTimeline;
-    private int tick = -1;
+    /**
+     * Returns the current playhead tick, it
+     * is -1 until {@link #next()} is called
+     *
+     * @return The current tick
+     * @since 1.0.0
+     */
+    int tick();
 
-    public BoneTimelinePlayhead(BoneTimeline boneTimeline) {
-        this.boneTimeline = boneTimeline;
-        this.positions = boneTimeline.positions().createPlayhead();
-        this.rotations = boneTimeline.rotations().createPlayhead();
-        this.scales = boneTimeline.scales().createPlayhead();
-    }
+    /**
+     * Advances this playhead by one tick and
+     * returns the frame for the new tick
+     *
+     * @return The frame for the next tick
+     * @since 1.0.0
+     */
+    @NotNull BoneFrame next();
 
-    public int tick() {
-        return tick;
+    /**
+     * Advances this playhead by one tick and writes the frame
+     * for the new tick into the given {@code destination} array,
+     * starting at {@code offset}.
+     *
+     * <p>Exactly nine values are written: the position, rotation
+     * and scale x, y and z components, in that order.</p>
+     *
+     * @param destination The destination array
+     * @param offset The destination array offset
+     * @since 1.0.0
+     */
+    default void next(final float @NotNull [] destination, final int offset) {
+        final BoneFrame frame = next();
+        final Vector3Float position = frame.position();
+        final Vector3Float rotation = frame.rotation();
+        final Vector3Float scale = frame.scale();
+        destination[offset] = position.x();
+        destination[offset + 1] = position.y();
+        destination[offset + 2] = position.z();
+        destination[offset + 3] = rotation.x();
+        destination[offset + 4] = rotation.y();
+        destination[offset + 5] = rotation.z();
+        destination[offset + 6] = scale.x();
+        destination[offset + 7] = scale.y();
+        destination[offset + 8] = scale.z();
     }
 
-    public BoneFrame next() {
-        tick++;
-        return new BoneFrame(
-                positions.next(),
-                rotations.next(),
-                scales.next()
-        );
-    }
+    /**
+     * Moves this playhead so that the next call to {@link #next()}
+     * returns the frame for the given {@code tick}
+     *
+     * @param tick The tick to move to
+     * @since 1.0.0
+     */
+    void seek(final int tick);
 
 }
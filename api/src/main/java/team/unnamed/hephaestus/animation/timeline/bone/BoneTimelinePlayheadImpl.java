@@ -0,0 +1,80 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.timeline.bone;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.hephaestus.animation.timeline.playhead.Playhead;
+
+final class BoneTimelinePlayheadImpl implements BoneTimelinePlayhead {
+
+    private final Playhead<Vector3Float> positions;
+    private final Playhead<Vector3Float> rotations;
+    private final Playhead<Vector3Float> scales;
+    private int tick = -1;
+
+    BoneTimelinePlayheadImpl(final @NotNull BoneTimeline boneTimeline) {
+        this.positions = boneTimeline.positions().createPlayhead();
+        this.rotations = boneTimeline.rotations().createPlayhead();
+        this.scales = boneTimeline.scales().createPlayhead();
+    }
+
+    @Override
+    public int tick() {
+        return tick;
+    }
+
+    @Override
+    public @NotNull BoneFrame next() {
+        tick++;
+        return new BoneFrame(
+                positions.next(),
+                rotations.next(),
+                scales.next()
+        );
+    }
+
+    @Override
+    public void next(final float @NotNull [] destination, final int offset) {
+        tick++;
+        write(positions.next(), destination, offset);
+        write(rotations.next(), destination, offset + 3);
+        write(scales.next(), destination, offset + 6);
+    }
+
+    @Override
+    public void seek(final int tick) {
+        this.tick = tick - 1;
+        positions.seek(tick);
+        rotations.seek(tick);
+        scales.seek(tick);
+    }
+
+    private static void write(final @NotNull Vector3Float value, final float @NotNull [] destination, final int offset) {
+        destination[offset] = value.x();
+        destination[offset + 1] = value.y();
+        destination[offset + 2] = value.z();
+    }
+
+}
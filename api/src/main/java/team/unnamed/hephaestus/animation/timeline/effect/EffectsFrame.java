@@ -30,6 +30,7 @@ import net.kyori.examination.string.StringExaminer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
+import team.unnamed.mocha.parser.ast.Expression;
 
 import java.util.Collections;
 import java.util.List;
@@ -42,10 +43,12 @@ public class EffectsFrame implements Examinable {
 
     private final List<Sound> sounds;
     private final List<String> instructions;
+    private final List<List<Expression>> compiledInstructions;
 
     public EffectsFrame(final @NotNull List<Sound> sounds, final @NotNull List<String> instructions) {
         this.sounds = requireNonNull(sounds, "sounds");
         this.instructions = requireNonNull(instructions, "instructions");
+        this.compiledInstructions = instructions.isEmpty() ? Collections.emptyList() : Instructions.compile(instructions);
     }
 
     public @NotNull @Unmodifiable List<Sound> sounds() {
@@ -56,6 +59,17 @@ public class EffectsFrame implements Examinable {
         return instructions;
     }
 
+    /**
+     * Returns the parsed {@link #instructions()}, in the same order,
+     * they are parsed once when this frame is created
+     *
+     * @return The parsed instructions
+     * @since 1.0.0
+     */
+    public @NotNull @Unmodifiable List<List<Expression>> compiledInstructions() {
+        return compiledInstructions;
+    }
+
     @Override
     public @NotNull Stream<? extends ExaminableProperty> examinableProperties() {
         return Stream.of(
@@ -26,8 +26,10 @@ package team.unnamed.hephaestus.animation.timeline.effect;
 import net.kyori.adventure.sound.Sound;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 
 import static java.util.Objects.requireNonNull;
 
@@ -36,9 +38,35 @@ final class EffectsTimelineImpl implements EffectsTimeline {
     private final Map<Integer, List<Sound>> sounds;
     private final Map<Integer, List<String>> instructions;
 
+    // sorted ticks that have effects, and their frames, so that
+    // playheads do not look up (or create) anything on empty ticks
+    final int[] ticks;
+    final EffectsFrame[] frames;
+
     EffectsTimelineImpl(Map<Integer, List<Sound>> sounds, Map<Integer, List<String>> instructions) {
         this.sounds = requireNonNull(sounds, "sounds");
         this.instructions = requireNonNull(instructions, "instructions");
+
+        final TreeSet<Integer> ticks = new TreeSet<>(sounds.keySet());
+        ticks.addAll(instructions.keySet());
+        this.ticks = new int[ticks.size()];
+        this.frames = new EffectsFrame[ticks.size()];
+        int index = 0;
+        for (final Integer tick : ticks) {
+            this.ticks[index] = tick;
+            this.frames[index] = new EffectsFrame(
+                    List.copyOf(sounds.getOrDefault(tick, Collections.emptyList())),
+                    List.copyOf(instructions.getOrDefault(tick, Collections.emptyList()))
+            );
+            index++;
+        }
+    }
+
+    static @NotNull EffectsTimelineImpl compile(final @NotNull EffectsTimeline timeline) {
+        if (timeline instanceof EffectsTimelineImpl) {
+            return (EffectsTimelineImpl) timeline;
+        }
+        return new EffectsTimelineImpl(timeline.sounds(), timeline.instructions());
     }
 
     @Override
@@ -23,15 +23,24 @@
  */
 package team.unnamed.hephaestus.animation.timeline.effect;
 
-import java.util.Collections;
+import java.util.Arrays;
 
 public class EffectsTimelinePlayhead {
 
-    private final EffectsTimeline timeline;
+    private final int[] ticks;
+    private final EffectsFrame[] frames;
+
+    // index of the next tick with effects, and that tick
+    // (or Integer.MAX_VALUE if there are no more effects)
+    private int cursor;
+    private int nextTick;
     private int tick = -1;
 
     public EffectsTimelinePlayhead(EffectsTimeline timeline) {
-        this.timeline = timeline;
+        final EffectsTimelineImpl compiled = EffectsTimelineImpl.compile(timeline);
+        this.ticks = compiled.ticks;
+        this.frames = compiled.frames;
+        moveCursor(0);
     }
 
     public int tick() {
@@ -39,10 +48,34 @@ public class EffectsTimelinePlayhead {
     }
 
     public EffectsFrame next() {
-        tick++;
-        return new EffectsFrame(
-                timeline.sounds().getOrDefault(tick, Collections.emptyList()),
-                timeline.instructions().getOrDefault(tick, Collections.emptyList())
-        );
+        if (++tick != nextTick) {
+            // no effects at this tick
+            return EffectsFrame.INITIAL;
+        }
+        final EffectsFrame frame = frames[cursor];
+        moveCursor(cursor + 1);
+        return frame;
+    }
+
+    /**
+     * Moves this playhead so that the next call to
+     * {@link #next()} returns the frame for the given
+     * {@code tick}
+     *
+     * @param tick The tick to move to
+     */
+    public void seek(int tick) {
+        this.tick = tick - 1;
+        int index = Arrays.binarySearch(ticks, tick);
+        if (index < 0) {
+            // not found, use the insertion point
+            index = -index - 1;
+        }
+        moveCursor(index);
+    }
+
+    private void moveCursor(final int cursor) {
+        this.cursor = cursor;
+        this.nextTick = cursor < ticks.length ? ticks[cursor] : Integer.MAX_VALUE;
     }
 }
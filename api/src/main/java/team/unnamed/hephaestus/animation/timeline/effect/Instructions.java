@@ -0,0 +1,66 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.timeline.effect;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses effect instructions once, when the effects timeline
+ * is built, so that they are not parsed every time they run.
+ */
+final class Instructions {
+
+    // only used to parse, scripts are evaluated by each view engine
+    private static final MochaEngine<?> PARSER = MochaEngine.createStandard();
+
+    private Instructions() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    static @NotNull List<List<Expression>> compile(final @NotNull List<String> instructions) {
+        final List<List<Expression>> compiled = new ArrayList<>(instructions.size());
+        for (final String instruction : instructions) {
+            compiled.add(compile(instruction));
+        }
+        return Collections.unmodifiableList(compiled);
+    }
+
+    private static @NotNull List<Expression> compile(final @NotNull String instruction) {
+        try {
+            synchronized (PARSER) {
+                return List.copyOf(PARSER.parse(instruction));
+            }
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Invalid instruction: '" + instruction + "'", e);
+        }
+    }
+
+}
@@ -30,15 +30,28 @@ public interface Playhead<T> {
 
     @NotNull T next();
 
+    /**
+     * Moves this playhead to the given tick, so that the
+     * next call to {@link #next()} returns the value at
+     * that tick.
+     *
+     * <p>Playheads can seek both forward and backward, so
+     * restarting a timeline does not require a new playhead</p>
+     *
+     * @param tick The tick to move to
+     * @since 1.0.0
+     */
+    void seek(final int tick);
+
     static <T> Playhead<T> playhead(Timeline<T> timeline) {
-        int len = timeline.keyFrames().size();
+        int len = timeline.size();
         if (len == 0) {
             // empty playheads always return the default value
             return new SingletonPlayhead<>(timeline.initial());
         } else if (len == 1) {
             // when a timeline has only one keyframe, no matter its time,
             // the playhead will always return that keyframe's value
-            return new SingletonPlayhead<>(timeline.keyFrames().first().value());
+            return new SingletonPlayhead<>(timeline.value(0));
         } else {
             return new PlayheadImpl<>(timeline);
         }
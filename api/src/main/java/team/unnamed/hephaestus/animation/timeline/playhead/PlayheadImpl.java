@@ -24,113 +24,76 @@
 package team.unnamed.hephaestus.animation.timeline.playhead;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import team.unnamed.hephaestus.animation.interpolation.Interpolation;
-import team.unnamed.hephaestus.animation.interpolation.Interpolators;
-import team.unnamed.hephaestus.animation.interpolation.KeyFrameInterpolator;
-import team.unnamed.hephaestus.animation.timeline.KeyFrame;
 import team.unnamed.hephaestus.animation.timeline.Timeline;
 
-import java.util.Iterator;
-
 final class PlayheadImpl<T> implements Playhead<T> {
 
     private final Timeline<T> timeline;
-    private final Iterator<KeyFrame<T>> keyFrameIterator;
-
-    // the previous and next keyframes,
-    // it is know that the keyframe returned
-    // by next()
-    private KeyFrame<T> previous;
-    private @Nullable KeyFrame<T> next;
-    private @Nullable KeyFrame<T> after;
 
-    // the current interpolation between the previous
-    // and the next keyframes, it is null if the next
-    // keyframe is null
-    private Interpolation<T> interpolation;
+    // the index of the keyframe before (or at) the current
+    // tick, -1 if the current tick is before the first
+    // keyframe (a virtual keyframe at time 0 holding the
+    // first keyframe value)
+    private int index;
 
     // the current tick
     private int tick = 0;
 
     PlayheadImpl(Timeline<T> timeline) {
+        // it is ensured from Playhead#playhead that the timeline
+        // will have at least two keyframes
         this.timeline = timeline;
-        // set up
-        // it is ensured from Playhead#playhead that the keyframes
-        // list will have at least two elements
-        keyFrameIterator = timeline.keyFrames().iterator();
-        KeyFrame<T> firstKeyFrame = keyFrameIterator.next();
-        KeyFrame<T> secondKeyFrame = keyFrameIterator.next();
-
-        if (firstKeyFrame.time() > 0) {
-            // if first key frame is not located at the start,
-            // create a key frame with time 0 and the same value
-            // as the first keyframe
-            // |-|         |           |
-            // (X)        first       second
-            previous = new KeyFrame<>(0, firstKeyFrame.value(), Interpolators.always(firstKeyFrame.value()));
-            next = firstKeyFrame;
-            after = secondKeyFrame;
-        } else {
-            //   |-|        |           |
-            //  first     second      after?
-            previous = firstKeyFrame;
-            next = secondKeyFrame;
-            after = keyFrameIterator.hasNext() ? keyFrameIterator.next() : null;
-        }
-
-        interpolation = computeInterpolator().interpolation(null, previous, next, after);
-    }
-
-    private KeyFrameInterpolator<T> computeInterpolator() {
-        KeyFrameInterpolator<T> interpolator;
-        if (next == null) {
-            interpolator = Interpolators.always(previous.value());
-        } else {
-            interpolator = previous.interpolatorOr(timeline.defaultInterpolator())
-                    .combineRight(next.interpolatorOr(timeline.defaultInterpolator()));
-        }
-        return interpolator;
+        this.index = timeline.time(0) > 0 ? -1 : 0;
     }
 
     @Override
     public @NotNull T next() {
-        // if there is no next keyframe to interpolate,
-        // just return the previous keyframe
-        if (next == null) {
-            return previous.value();
+        final int tick = this.tick++;
+        final int last = timeline.size() - 1;
+
+        // keyframes are usually crossed one by one, so
+        // just move forward instead of searching
+        while (index < last && timeline.time(index + 1) <= tick) {
+            index++;
         }
 
-        if (tick == next.time()) {
-            tick++;
-            return next.value();
+        if (index == -1) {
+            // before the first keyframe, keep its value
+            return timeline.value(0);
         }
 
-        // if the current tick is greater than the next keyframe's time,
-        // then we need to update the previous and next keyframes
-        if (tick > next.time()) {
-            @Nullable KeyFrame<T> before = previous;
-            previous = next;
-            next = after;
+        final int previousTime = timeline.time(index);
+        if (index == last || tick == previousTime && tick > 0) {
+            // if there is no next keyframe to interpolate,
+            // just return the previous keyframe
+            return timeline.value(index);
+        }
 
-            if (next == null) {
-                interpolation = null;
-                return previous.value();
-            }
+        // interpolate the previous and next keyframes,
+        // interpolations are shared by all the playheads
+        final double progress = ((double) (tick - previousTime)) / ((double) (timeline.time(index + 1) - previousTime));
+        return timeline.interpolation(index).interpolate(progress);
+    }
 
-            if (keyFrameIterator.hasNext()) {
-                after = keyFrameIterator.next();
+    @Override
+    public void seek(final int tick) {
+        this.tick = Math.max(0, tick);
+
+        // binary search for the last keyframe
+        // whose time is less than or equal to tick
+        int low = 0;
+        int high = timeline.size() - 1;
+        int found = -1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if (timeline.time(middle) <= this.tick) {
+                found = middle;
+                low = middle + 1;
             } else {
-                after = null;
+                high = middle - 1;
             }
-
-            interpolation = computeInterpolator().interpolation(before, previous, next, after);
         }
-
-        // interpolate the previous and next keyframes
-        double progress = ((double) (tick - previous.time())) / ((double) (next.time() - previous.time()));
-        tick++;
-        return interpolation.interpolate(progress);
+        this.index = found;
     }
 
 }
@@ -40,4 +40,9 @@ final class SingletonPlayhead<T> implements Playhead<T> {
         return value;
     }
 
+    @Override
+    public void seek(final int tick) {
+        // the value is the same for every tick
+    }
+
 }
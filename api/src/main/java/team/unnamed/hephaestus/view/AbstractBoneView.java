@@ -118,6 +118,75 @@ public interface AbstractBoneView extends BoneModifierMap {
      */
     void update(final @NotNull Vector3Float position, final @NotNull Quaternion rotation, final @NotNull Vector3Float scale);
 
+    /**
+     * Sets the absolute position, rotation and scale of this
+     * bone, using their primitive components.
+     *
+     * <p>The default implementation wraps the components and
+     * delegates to {@link #update(Vector3Float, Quaternion, Vector3Float)},
+     * implementations may override it to avoid creating objects
+     * when nothing changed</p>
+     *
+     * @param positionX The absolute position x component
+     * @param positionY The absolute position y component
+     * @param positionZ The absolute position z component
+     * @param rotationX The absolute rotation x component
+     * @param rotationY The absolute rotation y component
+     * @param rotationZ The absolute rotation z component
+     * @param rotationW The absolute rotation w component
+     * @param scaleX The absolute scale x component
+     * @param scaleY The absolute scale y component
+     * @param scaleZ The absolute scale z component
+     * @since 1.0.0
+     */
+    default void update(
+            final float positionX, final float positionY, final float positionZ,
+            final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+            final float scaleX, final float scaleY, final float scaleZ
+    ) {
+        update(
+                new Vector3Float(positionX, positionY, positionZ),
+                new Quaternion(rotationX, rotationY, rotationZ, rotationW),
+                new Vector3Float(scaleX, scaleY, scaleZ)
+        );
+    }
+
+    /**
+     * Sets the absolute position, rotation and scale that this bone
+     * must have in the given amount of {@code ticks}, if this bone view
+     * interpolates towards it by itself (e.g. the client interpolates
+     * it), so that it is not updated again during those ticks.
+     *
+     * <p>Positions and scales are expected to be interpolated linearly,
+     * and rotations spherically.</p>
+     *
+     * <p>The default implementation does nothing and returns false,
+     * so the bone is updated every tick instead</p>
+     *
+     * @param positionX The target absolute position x component
+     * @param positionY The target absolute position y component
+     * @param positionZ The target absolute position z component
+     * @param rotationX The target absolute rotation x component
+     * @param rotationY The target absolute rotation y component
+     * @param rotationZ The target absolute rotation z component
+     * @param rotationW The target absolute rotation w component
+     * @param scaleX The target absolute scale x component
+     * @param scaleY The target absolute scale y component
+     * @param scaleZ The target absolute scale z component
+     * @param ticks The ticks until the target transform is reached
+     * @return True if this bone view will interpolate towards
+     * the given transform, false if it was not updated
+     * @since 1.0.0
+     */
+    default boolean interpolate(
+            final float positionX, final float positionY, final float positionZ,
+            final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+            final float scaleX, final float scaleY, final float scaleZ,
+            final int ticks
+    ) {
+        return false;
+    }
+
     default void updateTransformation() {
     }
 
@@ -157,11 +157,104 @@ public interface AbstractModelView<TViewer> {
         playAnimation(name, 0);
     }
 
+    /**
+     * Determines whether this view was removed, removed views
+     * are not ticked by {@link ModelViewTicker} anymore.
+     *
+     * @return True if this view was removed
+     * @since 1.0.0
+     */
+    default boolean removed() {
+        return false;
+    }
+
+    /**
+     * Evaluates the next animation frame, without modifying
+     * the bones, may be called from any thread, see
+     * {@link AnimationPlayer#evaluate(team.unnamed.hephaestus.util.Quaternion, team.unnamed.creative.base.Vector3Float)}
+     *
+     * @since 1.0.0
+     */
+    default void evaluateAnimations() {
+        animationPlayer().evaluate();
+    }
+
+    /**
+     * Applies the last evaluated animation frame to the
+     * bones, must be called from the thread owning this
+     * view, see {@link AnimationPlayer#apply()}
+     *
+     * @since 1.0.0
+     */
+    default void applyAnimations() {
+        animationPlayer().apply();
+    }
+
+    /**
+     * Evaluates the animation frame after the given amount of
+     * ticks, used when this view is not evaluated every tick,
+     * see {@link LevelOfDetail}
+     *
+     * @param ticks The amount of ticks since the last evaluation
+     * @see AnimationPlayer#advance(int)
+     * @since 1.0.0
+     */
+    default void evaluateAnimations(final int ticks) {
+        if (ticks > 1) {
+            animationPlayer().advance(ticks - 1);
+        }
+        evaluateAnimations();
+    }
+
+    /**
+     * Fast-forwards the animations of this view by the given
+     * amount of ticks, used to catch up when a view that was
+     * not evaluated while it had no viewers is seen again
+     *
+     * @param ticks The amount of ticks to skip
+     * @see AnimationPlayer#fastForward(int)
+     * @since 1.0.0
+     */
+    default void fastForwardAnimations(final int ticks) {
+        animationPlayer().fastForward(ticks);
+    }
+
+    /**
+     * Applies the last evaluated animation frame to the bones,
+     * knowing that the next frame will be evaluated after the
+     * given amount of ticks. Implementations may use it to make
+     * the bones interpolate for longer
+     *
+     * @param interval The amount of ticks until the next evaluation
+     * @since 1.0.0
+     */
+    default void applyAnimations(final int interval) {
+        applyAnimations();
+    }
+
+    /**
+     * Returns the squared distance from this view to its closest
+     * viewer, used to determine its {@link LevelOfDetail level of detail}.
+     *
+     * <p>Views with no viewers are not evaluated at all until they
+     * have viewers again. Returns zero by default, so that views that
+     * do not know the position of their viewers are always fully
+     * detailed</p>
+     *
+     * @return The squared distance to the closest viewer, or
+     * {@link Double#POSITIVE_INFINITY} if there are no viewers
+     * @since 1.0.0
+     */
+    default double closestViewerDistanceSquared() {
+        return 0;
+    }
+
     /**
      * Ticks animations, makes required bones pass
      * to the next animation frame
      */
     default void tickAnimations() {
-        animationPlayer().tick();
+        evaluateAnimations();
+        applyAnimations();
     }
 }
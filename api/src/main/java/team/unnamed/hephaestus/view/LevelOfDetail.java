@@ -0,0 +1,116 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A level of detail policy, determines how often the animations
+ * of a view are evaluated, based on the distance to its closest
+ * viewer. Far views are updated less often, and their bones
+ * interpolate for longer, so that the lower update rate is not
+ * noticeable. Views with no viewers are not evaluated at all.
+ *
+ * <p>Platforms may also use it per viewer, to determine how often
+ * each viewer receives the changes of a view, by its distance.</p>
+ *
+ * <pre>{@code
+ * LevelOfDetail lod = LevelOfDetail.levelOfDetail()
+ *     .band(24, 1) // every tick up to 24 blocks
+ *     .band(48, 2) // every 2 ticks up to 48 blocks
+ *     .band(96, 4) // every 4 ticks up to 96 blocks
+ *     .beyond(10) // every 10 ticks farther than that
+ *     .build();
+ * }</pre>
+ *
+ * @since 1.0.0
+ */
+public interface LevelOfDetail {
+    /**
+     * Returns the level of detail policy that evaluates
+     * all the views every tick
+     *
+     * @return The full detail policy
+     * @since 1.0.0
+     */
+    static @NotNull LevelOfDetail none() {
+        return LevelOfDetailImpl.NONE;
+    }
+
+    /**
+     * Creates a new level of detail builder, views
+     * are evaluated every tick until a band is added
+     *
+     * @return The created builder
+     * @since 1.0.0
+     */
+    static @NotNull Builder levelOfDetail() {
+        return new LevelOfDetailImpl.BuilderImpl();
+    }
+
+    /**
+     * Determines the interval, in ticks, between animation
+     * evaluations for a view whose closest viewer is at the
+     * given squared distance
+     *
+     * @param distanceSquared The squared distance to the
+     *                        closest viewer
+     * @return The evaluation interval, always greater than zero
+     * @since 1.0.0
+     */
+    int interval(final double distanceSquared);
+
+    interface Builder {
+        /**
+         * Adds a distance band, views whose closest viewer is at
+         * most {@code maxDistance} blocks away (and not in a closer
+         * band) are evaluated every {@code interval} ticks
+         *
+         * @param maxDistance The band max distance, in blocks
+         * @param interval The evaluation interval, in ticks
+         * @return This builder
+         * @throws IllegalArgumentException If the interval is not
+         * positive or the distance is not greater than the distance
+         * of the previous band
+         * @since 1.0.0
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder band(final double maxDistance, final int interval);
+
+        /**
+         * Sets the evaluation interval for the views farther than
+         * every band, defaults to the interval of the farthest band
+         *
+         * @param interval The evaluation interval, in ticks
+         * @return This builder
+         * @throws IllegalArgumentException If the interval is not positive
+         * @since 1.0.0
+         */
+        @Contract("_ -> this")
+        @NotNull Builder beyond(final int interval);
+
+        @NotNull LevelOfDetail build();
+    }
+}
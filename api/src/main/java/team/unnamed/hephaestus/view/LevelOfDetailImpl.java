@@ -0,0 +1,105 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+final class LevelOfDetailImpl implements LevelOfDetail {
+    static final LevelOfDetail NONE = new LevelOfDetailImpl(new double[0], new int[0], 1);
+
+    // squared max distance and interval of every band, sorted by distance
+    private final double[] distancesSquared;
+    private final int[] intervals;
+    private final int beyond;
+
+    private LevelOfDetailImpl(final double @NotNull [] distancesSquared, final int @NotNull [] intervals, final int beyond) {
+        this.distancesSquared = distancesSquared;
+        this.intervals = intervals;
+        this.beyond = beyond;
+    }
+
+    @Override
+    public int interval(final double distanceSquared) {
+        for (int i = 0; i < distancesSquared.length; i++) {
+            if (distanceSquared <= distancesSquared[i]) {
+                return intervals[i];
+            }
+        }
+        return beyond;
+    }
+
+    @Override
+    public String toString() {
+        return "LevelOfDetail{" +
+                "distancesSquared=" + Arrays.toString(distancesSquared) +
+                ", intervals=" + Arrays.toString(intervals) +
+                ", beyond=" + beyond +
+                '}';
+    }
+
+    static final class BuilderImpl implements Builder {
+        private double[] distancesSquared = new double[0];
+        private int[] intervals = new int[0];
+        private int beyond = -1;
+
+        @Override
+        public @NotNull Builder band(final double maxDistance, final int interval) {
+            requirePositive(interval);
+            final double distanceSquared = maxDistance * maxDistance;
+            final int size = distancesSquared.length;
+            if (!(maxDistance >= 0) || (size > 0 && distanceSquared <= distancesSquared[size - 1])) {
+                throw new IllegalArgumentException("Bands must be added by increasing distance, got " + maxDistance);
+            }
+            distancesSquared = Arrays.copyOf(distancesSquared, size + 1);
+            intervals = Arrays.copyOf(intervals, size + 1);
+            distancesSquared[size] = distanceSquared;
+            intervals[size] = interval;
+            return this;
+        }
+
+        @Override
+        public @NotNull Builder beyond(final int interval) {
+            requirePositive(interval);
+            this.beyond = interval;
+            return this;
+        }
+
+        @Override
+        public @NotNull LevelOfDetail build() {
+            int beyond = this.beyond;
+            if (beyond == -1) {
+                beyond = intervals.length == 0 ? 1 : intervals[intervals.length - 1];
+            }
+            return new LevelOfDetailImpl(distancesSquared.clone(), intervals.clone(), beyond);
+        }
+
+        private static void requirePositive(final int interval) {
+            if (interval <= 0) {
+                throw new IllegalArgumentException("Interval must be positive, got " + interval);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A single tick loop over a group of {@link AbstractModelView model views},
+ * it is usually owned by the model engine, which registers every view it
+ * creates, so that views do not need their own scheduled task.
+ *
+ * <p>Views can be registered and unregistered from any thread, changes are
+ * applied when the next tick starts. Views that are {@link AbstractModelView#removed()
+ * removed} are automatically unregistered.</p>
+ *
+ * <p>Views far from their viewers may be evaluated less often than once
+ * per tick, depending on the {@link #levelOfDetail() level of detail}, and
+ * views with no viewers sleep: they are not evaluated until a viewer
+ * appears, when their animations are fast-forwarded to the current tick.</p>
+ *
+ * @since 1.0.0
+ */
+public interface ModelViewTicker {
+    /**
+     * Creates a new, empty model view ticker
+     *
+     * @return The created ticker
+     * @since 1.0.0
+     */
+    static @NotNull ModelViewTicker create() {
+        return new ModelViewTickerImpl(null);
+    }
+
+    /**
+     * Creates a new, empty model view ticker that evaluates the
+     * animations of its views in parallel, using the given executor.
+     *
+     * <p>Every tick is split in two phases: the poses of all the views
+     * are {@link AbstractModelView#evaluateAnimations() evaluated} in
+     * parallel, partitioned by view, and then they are
+     * {@link AbstractModelView#applyAnimations() applied} by the ticking
+     * thread, which owns the views.</p>
+     *
+     * @param executor The executor used to evaluate the animations
+     * @return The created ticker
+     * @since 1.0.0
+     */
+    static @NotNull ModelViewTicker create(final @NotNull Executor executor) {
+        return new ModelViewTickerImpl(requireNonNull(executor, "executor"));
+    }
+
+    /**
+     * Registers the given view with the default priority
+     * (zero), so that it is ticked from the next tick
+     *
+     * @param view The view to register
+     * @return True if the view was not registered before
+     * @see #register(AbstractModelView, int)
+     * @since 1.0.0
+     */
+    default boolean register(final @NotNull AbstractModelView<?> view) {
+        return register(view, 0);
+    }
+
+    /**
+     * Registers the given view, so that it is ticked
+     * from the next tick
+     *
+     * <p>The priority is only used when the ticker runs out of
+     * {@link #budget(Duration) budget}, views with a higher priority
+     * are preferred as if they were {@code priority} intervals more
+     * late, so that they go first, but other views still go first
+     * once they have been deferred long enough.</p>
+     *
+     * @param view The view to register
+     * @param priority The view priority, higher goes first
+     * @return True if the view was not registered before
+     * @since 1.0.0
+     */
+    boolean register(final @NotNull AbstractModelView<?> view, final int priority);
+
+    /**
+     * Unregisters the given view, so that it is
+     * not ticked anymore
+     *
+     * @param view The view to unregister
+     * @return True if the view was registered
+     * @since 1.0.0
+     */
+    boolean unregister(final @NotNull AbstractModelView<?> view);
+
+    /**
+     * Returns the currently registered views
+     *
+     * @return The registered views
+     * @since 1.0.0
+     */
+    @NotNull @Unmodifiable Collection<AbstractModelView<?>> views();
+
+    /**
+     * Returns the level of detail policy used to
+     * determine how often views are evaluated
+     *
+     * @return The level of detail policy
+     * @since 1.0.0
+     */
+    @NotNull LevelOfDetail levelOfDetail();
+
+    /**
+     * Sets the level of detail policy used to determine how
+     * often views are evaluated, based on the distance to their
+     * closest viewer. Defaults to {@link LevelOfDetail#none()}
+     *
+     * @param levelOfDetail The level of detail policy
+     * @since 1.0.0
+     */
+    void levelOfDetail(final @NotNull LevelOfDetail levelOfDetail);
+
+    /**
+     * Returns the max time a single {@link #tick()} may spend
+     * evaluating and applying animations, zero if unlimited
+     *
+     * @return The tick time budget
+     * @since 1.0.0
+     */
+    @NotNull Duration budget();
+
+    /**
+     * Sets the max time a single {@link #tick()} may spend evaluating
+     * and applying animations, zero (the default) for no limit.
+     *
+     * <p>Views that do not fit in the budget are deferred to the next
+     * tick, where they go first: views are ordered by how late they are,
+     * relative to their {@link LevelOfDetail level of detail} interval,
+     * plus their {@link #register(AbstractModelView, int) priority}, so
+     * that no view is deferred forever. Equally late views go by the
+     * distance to their closest viewer, closer first. Deferred views
+     * catch up with the skipped ticks when they are evaluated.</p>
+     *
+     * <p>At least one view is ticked every tick. With parallel
+     * evaluation, the budget is checked between batches of views.</p>
+     *
+     * @param budget The tick time budget
+     * @throws IllegalArgumentException If the budget is negative
+     * @since 1.0.0
+     */
+    void budget(final @NotNull Duration budget);
+
+    /**
+     * Returns the amount of views that were deferred to the
+     * next tick during the last tick, see {@link #budget(Duration)}
+     *
+     * @return The views deferred in the last tick
+     * @since 1.0.0
+     */
+    int lastDeferred();
+
+    /**
+     * Returns the total amount of times a view was deferred
+     * to the next tick, see {@link #budget(Duration)}
+     *
+     * @return The total deferred view count
+     * @since 1.0.0
+     */
+    long totalDeferred();
+
+    /**
+     * Returns the amount of ticks that ran out of budget
+     * and deferred some views, see {@link #budget(Duration)}
+     *
+     * @return The amount of ticks over budget
+     * @since 1.0.0
+     */
+    long overruns();
+
+    /**
+     * Ticks the animations of all the registered views, in
+     * registration order, must be called by a single thread
+     * at a time, usually once per server tick, by the thread
+     * that owns the views
+     *
+     * @since 1.0.0
+     */
+    void tick();
+}
@@ -0,0 +1,377 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.util.Objects.requireNonNull;
+
+final class ModelViewTickerImpl implements ModelViewTicker {
+    // max amount of partitions for parallel evaluation
+    private static final int PARTITIONS = Integer.getInteger(
+            "hephaestus.ticker_partitions",
+            Runtime.getRuntime().availableProcessors() * 2
+    );
+
+    // max amount of views evaluated between budget checks
+    private static final int BATCH_SIZE = Integer.getInteger("hephaestus.ticker_batch_size", 256);
+
+    // the most late views first, relative to how often they should be
+    // evaluated, priorities count as intervals of lateness, so that they
+    // go first but can't defer other views forever, then the closest
+    private static final Comparator<Entry> MOST_LATE_FIRST = Comparator.comparingDouble(
+            (Entry entry) -> (double) entry.elapsed / entry.interval + entry.priority
+    ).reversed().thenComparingDouble(entry -> entry.distanceSquared);
+
+    // registered views, may be read and modified by any thread
+    private final Set<AbstractModelView<?>> registered = ConcurrentHashMap.newKeySet();
+
+    // registrations and unregistrations since the last tick
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+
+    // the views in tick order, only modified by the ticking thread
+    private final List<Entry> views = new ArrayList<>();
+    // the views to evaluate in the current tick
+    private final List<Entry> due = new ArrayList<>();
+    private long tick;
+    private int nextPhase;
+
+    private volatile LevelOfDetail levelOfDetail = LevelOfDetail.none();
+    // max nanoseconds per tick, zero if unlimited
+    private volatile long budget = Long.getLong("hephaestus.ticker_budget_micros", 0L) * 1000L;
+
+    // statistics, only written by the ticking thread
+    private volatile int lastDeferred;
+    private volatile long totalDeferred;
+    private volatile long overruns;
+
+    // null if views are evaluated by the ticking thread
+    private final @Nullable Executor executor;
+
+    ModelViewTickerImpl(final @Nullable Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean register(final @NotNull AbstractModelView<?> view, final int priority) {
+        requireNonNull(view, "view");
+        if (!registered.add(view)) {
+            return false;
+        }
+        commands.add(() -> views.add(new Entry(view, priority, nextPhase++, tick)));
+        return true;
+    }
+
+    @Override
+    public boolean unregister(final @NotNull AbstractModelView<?> view) {
+        requireNonNull(view, "view");
+        if (!registered.remove(view)) {
+            return false;
+        }
+        commands.add(() -> views.removeIf(entry -> entry.view == view));
+        return true;
+    }
+
+    @Override
+    public @NotNull @Unmodifiable Collection<AbstractModelView<?>> views() {
+        return Collections.unmodifiableSet(registered);
+    }
+
+    @Override
+    public @NotNull LevelOfDetail levelOfDetail() {
+        return levelOfDetail;
+    }
+
+    @Override
+    public void levelOfDetail(final @NotNull LevelOfDetail levelOfDetail) {
+        this.levelOfDetail = requireNonNull(levelOfDetail, "levelOfDetail");
+    }
+
+    @Override
+    public @NotNull Duration budget() {
+        return Duration.ofNanos(budget);
+    }
+
+    @Override
+    public void budget(final @NotNull Duration budget) {
+        requireNonNull(budget, "budget");
+        if (budget.isNegative()) {
+            throw new IllegalArgumentException("Budget must be positive or zero, got " + budget);
+        }
+        this.budget = budget.toNanos();
+    }
+
+    @Override
+    public int lastDeferred() {
+        return lastDeferred;
+    }
+
+    @Override
+    public long totalDeferred() {
+        return totalDeferred;
+    }
+
+    @Override
+    public long overruns() {
+        return overruns;
+    }
+
+    @Override
+    public void tick() {
+        final long start = System.nanoTime();
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+        }
+
+        final long tick = ++this.tick;
+        final LevelOfDetail levelOfDetail = this.levelOfDetail;
+        final long budget = this.budget;
+
+        // remove the removed views and collect the ones to evaluate
+        due.clear();
+        int count = 0;
+        for (int i = 0, size = views.size(); i < size; i++) {
+            final Entry entry = views.get(i);
+            if (entry.view.removed()) {
+                registered.remove(entry.view);
+                continue;
+            }
+            views.set(count++, entry);
+
+            // phases are different so that views with the
+            // same interval are not evaluated in the same tick
+            if (!entry.sleeping && !entry.deferred && (tick + entry.phase) % entry.interval != 0) {
+                continue;
+            }
+            final double distanceSquared = entry.view.closestViewerDistanceSquared();
+            if (distanceSquared == Double.POSITIVE_INFINITY) {
+                // nobody can see it, sleep until somebody can
+                entry.sleeping = true;
+                entry.deferred = false;
+                continue;
+            }
+            // stays true until evaluated, even if deferred
+            entry.woke |= entry.sleeping;
+            entry.sleeping = false;
+            entry.elapsed = (int) Math.min(tick - entry.lastTick, Integer.MAX_VALUE);
+            entry.distanceSquared = distanceSquared;
+            entry.interval = levelOfDetail.interval(distanceSquared);
+            due.add(entry);
+        }
+        views.subList(count, views.size()).clear();
+        final int size = due.size();
+
+        if (budget > 0) {
+            // deferred views are evaluated first in the next tick
+            due.sort(MOST_LATE_FIRST);
+        }
+        final long deadline = start + budget;
+
+        // a failing view does not prevent the others from ticking
+        final Failures failures = new Failures();
+        int done = 0;
+        if (executor == null || size < 2) {
+            for (; done < size; done++) {
+                if (budget > 0 && done > 0 && System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+                final Entry entry = due.get(done);
+                try {
+                    evaluate(entry);
+                    entry.view.applyAnimations(entry.interval);
+                } catch (final RuntimeException e) {
+                    failures.add(e);
+                }
+                entry.evaluated(tick);
+            }
+        } else {
+            // evaluated in batches when there is a budget, so
+            // that it can be checked between batches
+            final int batchSize = budget > 0 ? BATCH_SIZE : size;
+            while (done < size) {
+                if (budget > 0 && done > 0 && System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+                final int from = done;
+                final int to = Math.min(size, from + batchSize);
+
+                // phase one: evaluate in parallel
+                evaluate(executor, from, to, failures);
+
+                // phase two: apply in the ticking thread
+                for (int i = from; i < to; i++) {
+                    final Entry entry = due.get(i);
+                    try {
+                        entry.view.applyAnimations(entry.interval);
+                    } catch (final RuntimeException e) {
+                        failures.add(e);
+                    }
+                    entry.evaluated(tick);
+                }
+                done = to;
+            }
+        }
+
+        // out of budget, the rest are evaluated in the next
+        // tick, when their animations catch up by seeking
+        for (int i = done; i < size; i++) {
+            due.get(i).deferred = true;
+        }
+        final int deferred = size - done;
+        lastDeferred = deferred;
+        if (deferred > 0) {
+            totalDeferred += deferred;
+            overruns++;
+        }
+        failures.rethrow();
+    }
+
+    private void evaluate(final @NotNull Executor executor, final int start, final int end, final @NotNull Failures failures) {
+        final int count = end - start;
+        final int partitionSize = (count + PARTITIONS - 1) / PARTITIONS;
+        final int partitions = (count + partitionSize - 1) / partitionSize;
+        final CountDownLatch latch = new CountDownLatch(partitions);
+
+        for (int partition = 0; partition < partitions; partition++) {
+            final int from = start + partition * partitionSize;
+            final int to = Math.min(end, from + partitionSize);
+            final Runnable task = () -> {
+                try {
+                    for (int i = from; i < to; i++) {
+                        try {
+                            evaluate(due.get(i));
+                        } catch (final RuntimeException e) {
+                            failures.add(e);
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            };
+
+            if (partition == partitions - 1) {
+                // the ticking thread evaluates the last partition
+                task.run();
+            } else {
+                try {
+                    executor.execute(task);
+                } catch (final RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+        }
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void evaluate(final @NotNull Entry entry) {
+        if (entry.woke) {
+            // catch up by seeking, instead of
+            // simulating every slept tick
+            entry.view.fastForwardAnimations(entry.elapsed - 1);
+            entry.view.evaluateAnimations(1);
+        } else {
+            entry.view.evaluateAnimations(entry.elapsed);
+        }
+    }
+
+    private static final class Entry {
+        private final AbstractModelView<?> view;
+        private final int priority;
+        private final int phase;
+        // tick of the last evaluation
+        private long lastTick;
+        // ticks between the last two evaluations
+        private int elapsed;
+        // ticks until the next evaluation
+        private int interval = 1;
+        // squared distance to the closest viewer, when last due
+        private double distanceSquared;
+        // true if it has no viewers
+        private boolean sleeping;
+        // true if it had no viewers until it was due
+        private boolean woke;
+        // true if it was due but did not fit in the budget
+        private boolean deferred;
+
+        Entry(final @NotNull AbstractModelView<?> view, final int priority, final int phase, final long lastTick) {
+            this.view = view;
+            this.priority = priority;
+            this.phase = phase;
+            this.lastTick = lastTick;
+        }
+
+        void evaluated(final long tick) {
+            lastTick = tick;
+            woke = false;
+            deferred = false;
+        }
+    }
+
+    private static final class Failures {
+        private RuntimeException failure;
+
+        synchronized void add(final @NotNull RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+
+        synchronized void rethrow() {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
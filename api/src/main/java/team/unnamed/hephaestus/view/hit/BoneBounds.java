@@ -0,0 +1,238 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view.hit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.creative.model.ElementRotation;
+import team.unnamed.hephaestus.asset.BoneAsset;
+import team.unnamed.hephaestus.asset.ElementAsset;
+import team.unnamed.hephaestus.asset.ModelAsset;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The axis-aligned bounds of the cubes of a bone, in the bone
+ * space, before the bone position, rotation and scale are applied,
+ * in Minecraft blocks.
+ *
+ * <p>They are computed from the bone assets, which may be discarded
+ * once the resource-pack is written, so models compute them when
+ * they are created (see {@link team.unnamed.hephaestus.Model#boneBounds(String)})</p>
+ *
+ * @since 1.0.0
+ */
+public final class BoneBounds {
+    // the item model origin, in pixels (see ElementScale)
+    private static final float MODEL_ORIGIN = 8F;
+    private static final float PIXELS_PER_BLOCK = 16F;
+
+    private final float minX;
+    private final float minY;
+    private final float minZ;
+    private final float maxX;
+    private final float maxY;
+    private final float maxZ;
+
+    public BoneBounds(
+            final float minX, final float minY, final float minZ,
+            final float maxX, final float maxY, final float maxZ
+    ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            throw new IllegalArgumentException("Minimum point must not be greater than the maximum point");
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Computes the bounds of the cubes of the given bone asset,
+     * including the rotation of each cube
+     *
+     * <p>Cube coordinates are in the resource-pack model space, they
+     * are moved to the bone origin, scaled by the bone model scale, and
+     * their X and Z axes are inverted, since item displays render their
+     * model rotated by 180 degrees around the Y axis.</p>
+     *
+     * @param asset The bone asset
+     * @return The bounds, or null if the bone has no cubes
+     * @since 1.0.0
+     */
+    public static @Nullable BoneBounds of(final @NotNull BoneAsset asset) {
+        final var cubes = asset.cubes();
+        if (cubes.isEmpty()) {
+            return null;
+        }
+
+        final float[] bounds = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+        };
+        for (final ElementAsset cube : cubes) {
+            final var from = cube.from();
+            final var to = cube.to();
+            for (int corner = 0; corner < 8; corner++) {
+                include(
+                        bounds,
+                        cube.rotation(),
+                        (corner & 1) == 0 ? from.x() : to.x(),
+                        (corner & 2) == 0 ? from.y() : to.y(),
+                        (corner & 4) == 0 ? from.z() : to.z()
+                );
+            }
+        }
+
+        // subtracted from zero instead of negated, to never get negative zeros
+        final float scale = asset.scale() / PIXELS_PER_BLOCK;
+        return new BoneBounds(
+                0F - bounds[3] * scale, bounds[1] * scale, 0F - bounds[5] * scale,
+                0F - bounds[0] * scale, bounds[4] * scale, 0F - bounds[2] * scale
+        );
+    }
+
+    /**
+     * Computes the bounds of every bone with cubes of the given model
+     * asset, including child bones
+     *
+     * @param asset The model asset, may be null if it was discarded
+     * @return The bone bounds, by bone name, empty if the asset is null
+     * @since 1.0.0
+     */
+    public static @NotNull Map<String, BoneBounds> of(final @Nullable ModelAsset asset) {
+        final Map<String, BoneBounds> bounds = new HashMap<>();
+        if (asset != null) {
+            collect(asset.bones(), bounds);
+        }
+        return bounds;
+    }
+
+    private static void collect(final @NotNull Collection<BoneAsset> assets, final @NotNull Map<String, BoneBounds> into) {
+        for (final BoneAsset asset : assets) {
+            final var bounds = of(asset);
+            if (bounds != null) {
+                into.put(asset.name(), bounds);
+            }
+            collect(asset.children(), into);
+        }
+    }
+
+    // rotates the given cube corner (in pixels) and includes it in the
+    // given bounds (relative to the model origin, in pixels)
+    private static void include(final float @NotNull [] bounds, final @Nullable ElementRotation rotation, float x, float y, float z) {
+        if (rotation != null && rotation.angle() != 0) {
+            final Vector3Float origin = rotation.origin();
+            final double angle = Math.toRadians(rotation.angle());
+            final double cos = Math.cos(angle);
+            final double sin = Math.sin(angle);
+            final float dx = x - origin.x();
+            final float dy = y - origin.y();
+            final float dz = z - origin.z();
+            switch (rotation.axis()) {
+                case X -> {
+                    y = (float) (origin.y() + dy * cos - dz * sin);
+                    z = (float) (origin.z() + dy * sin + dz * cos);
+                }
+                case Y -> {
+                    x = (float) (origin.x() + dx * cos + dz * sin);
+                    z = (float) (origin.z() - dx * sin + dz * cos);
+                }
+                case Z -> {
+                    x = (float) (origin.x() + dx * cos - dy * sin);
+                    y = (float) (origin.y() + dx * sin + dy * cos);
+                }
+            }
+        }
+        x -= MODEL_ORIGIN;
+        y -= MODEL_ORIGIN;
+        z -= MODEL_ORIGIN;
+        bounds[0] = Math.min(bounds[0], x);
+        bounds[1] = Math.min(bounds[1], y);
+        bounds[2] = Math.min(bounds[2], z);
+        bounds[3] = Math.max(bounds[3], x);
+        bounds[4] = Math.max(bounds[4], y);
+        bounds[5] = Math.max(bounds[5], z);
+    }
+
+    public float minX() {
+        return minX;
+    }
+
+    public float minY() {
+        return minY;
+    }
+
+    public float minZ() {
+        return minZ;
+    }
+
+    public float maxX() {
+        return maxX;
+    }
+
+    public float maxY() {
+        return maxY;
+    }
+
+    public float maxZ() {
+        return maxZ;
+    }
+
+    @Override
+    public boolean equals(final @Nullable Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final var other = (BoneBounds) o;
+        return Float.compare(minX, other.minX) == 0
+                && Float.compare(minY, other.minY) == 0
+                && Float.compare(minZ, other.minZ) == 0
+                && Float.compare(maxX, other.maxX) == 0
+                && Float.compare(maxY, other.maxY) == 0
+                && Float.compare(maxZ, other.maxZ) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.hashCode(minX);
+        result = 31 * result + Float.hashCode(minY);
+        result = 31 * result + Float.hashCode(minZ);
+        result = 31 * result + Float.hashCode(maxX);
+        result = 31 * result + Float.hashCode(maxY);
+        result = 31 * result + Float.hashCode(maxZ);
+        return result;
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return "BoneBounds{"
+                + "min=(" + minX + ", " + minY + ", " + minZ + "), "
+                + "max=(" + maxX + ", " + maxY + ", " + maxZ + ")}";
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view.hit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable bounding volume hierarchy of {@link OrientedBox oriented
+ * boxes}, used to find the box hit by a ray without testing every box.
+ *
+ * <p>Nodes are axis-aligned boxes enclosing their children, they are
+ * split by the median of their boxes centers on their longest axis,
+ * and stored in flat arrays.</p>
+ *
+ * <p>Models have few bones, so building a hierarchy is cheap, it can
+ * be built again when the bones move.</p>
+ *
+ * @param <T> The type of the values of the boxes, e.g. bone views
+ * @since 1.0.0
+ */
+public final class BoundingVolumeHierarchy<T> {
+    // max amount of boxes in a leaf node
+    private static final int LEAF_SIZE = 2;
+
+    private final T[] values;
+    private final OrientedBox[] boxes;
+
+    // node bounds (minX, minY, minZ, maxX, maxY, maxZ), by node index
+    private final double[] bounds;
+    // the first box of leaf nodes, or the first child of inner nodes,
+    // whose second child is the next node
+    private final int[] first;
+    // the amount of boxes of leaf nodes, zero for inner nodes
+    private final int[] count;
+    private int nodeCount;
+
+    @SuppressWarnings("unchecked")
+    private BoundingVolumeHierarchy(final @NotNull List<? extends T> values, final @NotNull List<OrientedBox> boxes) {
+        final int size = boxes.size();
+        this.values = (T[]) values.toArray();
+        this.boxes = boxes.toArray(new OrientedBox[0]);
+
+        // a binary tree with at least one box per leaf
+        final int maxNodes = Math.max(1, 2 * size - 1);
+        this.bounds = new double[maxNodes * 6];
+        this.first = new int[maxNodes];
+        this.count = new int[maxNodes];
+
+        nodeCount = 1;
+        build(0, 0, size);
+    }
+
+    /**
+     * Builds a bounding volume hierarchy of the given boxes
+     *
+     * @param values The values of the boxes, by box index
+     * @param boxes The boxes
+     * @param <T> The type of the values
+     * @return The bounding volume hierarchy
+     * @throws IllegalArgumentException If there are not as many values as boxes
+     * @since 1.0.0
+     */
+    public static <T> @NotNull BoundingVolumeHierarchy<T> build(final @NotNull List<? extends T> values, final @NotNull List<OrientedBox> boxes) {
+        requireNonNull(values, "values");
+        requireNonNull(boxes, "boxes");
+        if (values.size() != boxes.size()) {
+            throw new IllegalArgumentException("There must be a value per box, got "
+                    + values.size() + " values and " + boxes.size() + " boxes");
+        }
+        return new BoundingVolumeHierarchy<>(values, boxes);
+    }
+
+    private void build(final int node, final int from, final int to) {
+        final int offset = node * 6;
+        bounds[offset] = bounds[offset + 1] = bounds[offset + 2] = Double.POSITIVE_INFINITY;
+        bounds[offset + 3] = bounds[offset + 4] = bounds[offset + 5] = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            final var box = boxes[i];
+            bounds[offset] = Math.min(bounds[offset], box.minX());
+            bounds[offset + 1] = Math.min(bounds[offset + 1], box.minY());
+            bounds[offset + 2] = Math.min(bounds[offset + 2], box.minZ());
+            bounds[offset + 3] = Math.max(bounds[offset + 3], box.maxX());
+            bounds[offset + 4] = Math.max(bounds[offset + 4], box.maxY());
+            bounds[offset + 5] = Math.max(bounds[offset + 5], box.maxZ());
+        }
+
+        if (to - from <= LEAF_SIZE) {
+            first[node] = from;
+            count[node] = to - from;
+            return;
+        }
+
+        // split on the longest axis of the node bounds
+        final double sizeX = bounds[offset + 3] - bounds[offset];
+        final double sizeY = bounds[offset + 4] - bounds[offset + 1];
+        final double sizeZ = bounds[offset + 5] - bounds[offset + 2];
+        final int axis = sizeX >= sizeY && sizeX >= sizeZ ? 0 : (sizeY >= sizeZ ? 1 : 2);
+        final int middle = (from + to) >>> 1;
+        select(from, to - 1, middle, axis);
+
+        final int left = nodeCount;
+        nodeCount += 2;
+        first[node] = left;
+        count[node] = 0;
+        build(left, from, middle);
+        build(left + 1, middle, to);
+    }
+
+    // partially sorts the boxes in [from, to] so that the box at 'k' is the
+    // one that would be there if they were sorted by their center on the
+    // given axis, with smaller centers before it (quickselect)
+    private void select(int from, int to, final int k, final int axis) {
+        while (from < to) {
+            final double pivot = center(boxes[(from + to) >>> 1], axis);
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (center(boxes[i], axis) < pivot) i++;
+                while (center(boxes[j], axis) > pivot) j--;
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (k <= j) {
+                to = j;
+            } else if (k >= i) {
+                from = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static double center(final @NotNull OrientedBox box, final int axis) {
+        return switch (axis) {
+            case 0 -> box.minX() + box.maxX();
+            case 1 -> box.minY() + box.maxY();
+            default -> box.minZ() + box.maxZ();
+        };
+    }
+
+    private void swap(final int i, final int j) {
+        final var box = boxes[i];
+        boxes[i] = boxes[j];
+        boxes[j] = box;
+        final var value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    /**
+     * Determines whether this hierarchy has no boxes
+     *
+     * @return True if this hierarchy is empty
+     * @since 1.0.0
+     */
+    public boolean isEmpty() {
+        return boxes.length == 0;
+    }
+
+    /**
+     * Finds the closest box hit by the given ray, within the given
+     * distance, without testing the boxes whose nodes are not hit
+     *
+     * @param originX The ray origin x component
+     * @param originY The ray origin y component
+     * @param originZ The ray origin z component
+     * @param directionX The ray direction x component, normalized
+     * @param directionY The ray direction y component, normalized
+     * @param directionZ The ray direction z component, normalized
+     * @param maxDistance The max distance
+     * @return The closest hit, or null if no box is hit
+     * @since 1.0.0
+     */
+    public @Nullable Hit<T> raycast(
+            final double originX, final double originY, final double originZ,
+            final double directionX, final double directionY, final double directionZ,
+            final double maxDistance
+    ) {
+        if (boxes.length == 0) {
+            return null;
+        }
+
+        final double inverseX = 1 / directionX;
+        final double inverseY = 1 / directionY;
+        final double inverseZ = 1 / directionZ;
+
+        // the tree depth is logarithmic, and a stack of n nodes
+        // holds at most a node per depth level, plus a sibling
+        final int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+
+        int closest = -1;
+        double closestDistance = maxDistance;
+        while (stackSize > 0) {
+            final int node = stack[--stackSize];
+            if (!hits(node, originX, originY, originZ, inverseX, inverseY, inverseZ, closestDistance)) {
+                continue;
+            }
+            final int boxCount = count[node];
+            if (boxCount == 0) {
+                stack[stackSize++] = first[node] + 1;
+                stack[stackSize++] = first[node];
+                continue;
+            }
+            for (int i = first[node], end = i + boxCount; i < end; i++) {
+                final double distance = boxes[i].intersect(originX, originY, originZ, directionX, directionY, directionZ);
+                if (distance <= closestDistance) {
+                    closest = i;
+                    closestDistance = distance;
+                }
+            }
+        }
+        return closest == -1 ? null : new Hit<>(values[closest], closestDistance);
+    }
+
+    // checks whether the ray hits the bounds of the given node within the given distance
+    private boolean hits(
+            final int node,
+            final double originX, final double originY, final double originZ,
+            final double inverseX, final double inverseY, final double inverseZ,
+            final double maxDistance
+    ) {
+        final int offset = node * 6;
+        double near = 0;
+        double far = maxDistance;
+
+        double t1 = (bounds[offset] - originX) * inverseX;
+        double t2 = (bounds[offset + 3] - originX) * inverseX;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+
+        t1 = (bounds[offset + 1] - originY) * inverseY;
+        t2 = (bounds[offset + 4] - originY) * inverseY;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+
+        t1 = (bounds[offset + 2] - originZ) * inverseZ;
+        t2 = (bounds[offset + 5] - originZ) * inverseZ;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+
+        return near <= far;
+    }
+
+    /**
+     * A box hit by a ray
+     *
+     * @param value The value of the hit box
+     * @param distance The distance to the hit point, along the ray
+     * @param <T> The type of the value
+     * @since 1.0.0
+     */
+    public record Hit<T>(@NotNull T value, double distance) {
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view.hit;
+
+import org.jetbrains.annotations.NotNull;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An oriented bounding box, the {@link BoneBounds} of a bone
+ * transformed by its current position, rotation and scale.
+ *
+ * <p>It also holds its enclosing axis-aligned bounds, used
+ * by {@link BoundingVolumeHierarchy}</p>
+ *
+ * @since 1.0.0
+ */
+public final class OrientedBox {
+    private final double centerX, centerY, centerZ;
+    // the box axes, columns of the rotation matrix
+    private final double axisXx, axisXy, axisXz;
+    private final double axisYx, axisYy, axisYz;
+    private final double axisZx, axisZy, axisZz;
+    private final double halfX, halfY, halfZ;
+
+    // the enclosing axis-aligned bounds
+    private final double minX, minY, minZ;
+    private final double maxX, maxY, maxZ;
+
+    private OrientedBox(
+            final double centerX, final double centerY, final double centerZ,
+            final double axisXx, final double axisXy, final double axisXz,
+            final double axisYx, final double axisYy, final double axisYz,
+            final double axisZx, final double axisZy, final double axisZz,
+            final double halfX, final double halfY, final double halfZ
+    ) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.centerZ = centerZ;
+        this.axisXx = axisXx;
+        this.axisXy = axisXy;
+        this.axisXz = axisXz;
+        this.axisYx = axisYx;
+        this.axisYy = axisYy;
+        this.axisYz = axisYz;
+        this.axisZx = axisZx;
+        this.axisZy = axisZy;
+        this.axisZz = axisZz;
+        this.halfX = halfX;
+        this.halfY = halfY;
+        this.halfZ = halfZ;
+
+        final double extentX = Math.abs(axisXx) * halfX + Math.abs(axisYx) * halfY + Math.abs(axisZx) * halfZ;
+        final double extentY = Math.abs(axisXy) * halfX + Math.abs(axisYy) * halfY + Math.abs(axisZy) * halfZ;
+        final double extentZ = Math.abs(axisXz) * halfX + Math.abs(axisYz) * halfY + Math.abs(axisZz) * halfZ;
+        this.minX = centerX - extentX;
+        this.minY = centerY - extentY;
+        this.minZ = centerZ - extentZ;
+        this.maxX = centerX + extentX;
+        this.maxY = centerY + extentY;
+        this.maxZ = centerZ + extentZ;
+    }
+
+    /**
+     * Creates the oriented box of the given bounds, scaled, rotated
+     * and then translated, like a display entity transformation
+     *
+     * @param bounds The bone bounds
+     * @param translationX The translation x component
+     * @param translationY The translation y component
+     * @param translationZ The translation z component
+     * @param rotationX The rotation x component
+     * @param rotationY The rotation y component
+     * @param rotationZ The rotation z component
+     * @param rotationW The rotation w component
+     * @param scaleX The scale x component
+     * @param scaleY The scale y component
+     * @param scaleZ The scale z component
+     * @return The oriented box
+     * @since 1.0.0
+     */
+    public static @NotNull OrientedBox of(
+            final @NotNull BoneBounds bounds,
+            final double translationX, final double translationY, final double translationZ,
+            final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+            final double scaleX, final double scaleY, final double scaleZ
+    ) {
+        requireNonNull(bounds, "bounds");
+
+        final double xx = rotationX * rotationX;
+        final double xy = rotationX * rotationY;
+        final double xz = rotationX * rotationZ;
+        final double xw = rotationX * rotationW;
+        final double yy = rotationY * rotationY;
+        final double yz = rotationY * rotationZ;
+        final double yw = rotationY * rotationW;
+        final double zz = rotationZ * rotationZ;
+        final double zw = rotationZ * rotationW;
+
+        // rotation matrix columns (see Quaternion#transform)
+        final double axisXx = 1 - 2 * (yy + zz), axisXy = 2 * (xy + zw), axisXz = 2 * (xz - yw);
+        final double axisYx = 2 * (xy - zw), axisYy = 1 - 2 * (xx + zz), axisYz = 2 * (yz + xw);
+        final double axisZx = 2 * (xz + yw), axisZy = 2 * (yz - xw), axisZz = 1 - 2 * (xx + yy);
+
+        // the scaled center, in the bone space
+        final double localX = (bounds.minX() + bounds.maxX()) * 0.5 * scaleX;
+        final double localY = (bounds.minY() + bounds.maxY()) * 0.5 * scaleY;
+        final double localZ = (bounds.minZ() + bounds.maxZ()) * 0.5 * scaleZ;
+
+        return new OrientedBox(
+                translationX + axisXx * localX + axisYx * localY + axisZx * localZ,
+                translationY + axisXy * localX + axisYy * localY + axisZy * localZ,
+                translationZ + axisXz * localX + axisYz * localY + axisZz * localZ,
+                axisXx, axisXy, axisXz,
+                axisYx, axisYy, axisYz,
+                axisZx, axisZy, axisZz,
+                (bounds.maxX() - bounds.minX()) * 0.5 * Math.abs(scaleX),
+                (bounds.maxY() - bounds.minY()) * 0.5 * Math.abs(scaleY),
+                (bounds.maxZ() - bounds.minZ()) * 0.5 * Math.abs(scaleZ)
+        );
+    }
+
+    /**
+     * Computes the distance, along the given ray, to the point
+     * where the ray enters this box
+     *
+     * <p>Distances are measured in units of the direction length,
+     * which is expected to be normalized.</p>
+     *
+     * @param originX The ray origin x component
+     * @param originY The ray origin y component
+     * @param originZ The ray origin z component
+     * @param directionX The ray direction x component
+     * @param directionY The ray direction y component
+     * @param directionZ The ray direction z component
+     * @return The distance to the entry point, zero if the origin is
+     * inside this box, or {@link Double#POSITIVE_INFINITY} if the ray
+     * does not hit this box
+     * @since 1.0.0
+     */
+    public double intersect(
+            final double originX, final double originY, final double originZ,
+            final double directionX, final double directionY, final double directionZ
+    ) {
+        // the ray, in the box space, where the box is axis-aligned
+        final double relativeX = originX - centerX;
+        final double relativeY = originY - centerY;
+        final double relativeZ = originZ - centerZ;
+
+        // the [entry, exit] range is clipped to the slab [-half, half] of
+        // every axis, kept in locals so that testing a box does not allocate
+        double entry = 0;
+        double exit = Double.POSITIVE_INFINITY;
+        double origin, direction, inverse, near, far;
+
+        // x slab
+        origin = axisXx * relativeX + axisXy * relativeY + axisXz * relativeZ;
+        direction = axisXx * directionX + axisXy * directionY + axisXz * directionZ;
+        if (direction == 0) {
+            if (origin < -halfX || origin > halfX) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            inverse = 1 / direction;
+            near = (-halfX - origin) * inverse;
+            far = (halfX - origin) * inverse;
+            entry = Math.max(entry, Math.min(near, far));
+            exit = Math.min(exit, Math.max(near, far));
+            if (!(entry <= exit)) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        // y slab
+        origin = axisYx * relativeX + axisYy * relativeY + axisYz * relativeZ;
+        direction = axisYx * directionX + axisYy * directionY + axisYz * directionZ;
+        if (direction == 0) {
+            if (origin < -halfY || origin > halfY) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            inverse = 1 / direction;
+            near = (-halfY - origin) * inverse;
+            far = (halfY - origin) * inverse;
+            entry = Math.max(entry, Math.min(near, far));
+            exit = Math.min(exit, Math.max(near, far));
+            if (!(entry <= exit)) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        // z slab
+        origin = axisZx * relativeX + axisZy * relativeY + axisZz * relativeZ;
+        direction = axisZx * directionX + axisZy * directionY + axisZz * directionZ;
+        if (direction == 0) {
+            if (origin < -halfZ || origin > halfZ) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            inverse = 1 / direction;
+            near = (-halfZ - origin) * inverse;
+            far = (halfZ - origin) * inverse;
+            entry = Math.max(entry, Math.min(near, far));
+            exit = Math.min(exit, Math.max(near, far));
+            if (!(entry <= exit)) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+        return entry;
+    }
+
+    public double minX() {
+        return minX;
+    }
+
+    public double minY() {
+        return minY;
+    }
+
+    public double minZ() {
+        return minZ;
+    }
+
+    public double maxX() {
+        return maxX;
+    }
+
+    public double maxY() {
+        return maxY;
+    }
+
+    public double maxZ() {
+        return maxZ;
+    }
+}
@@ -40,6 +40,20 @@ public interface BoneModifierMap extends BoneModifier {
 
     boolean hasModifier(final @NotNull BoneModifierType<?> type);
 
+    /**
+     * Determines whether this map has no modifiers, in which
+     * case modifying any value returns the same value.
+     *
+     * <p>Callers can use this to skip building values only
+     * needed for modification</p>
+     *
+     * @return True if there are no modifiers
+     * @since 1.0.0
+     */
+    default boolean isEmpty() {
+        return false;
+    }
+
     interface Forwarding extends BoneModifierMap {
         @NotNull BoneModifierMap modifiers();
 
@@ -57,5 +71,10 @@ public interface BoneModifierMap extends BoneModifier {
         default boolean hasModifier(final @NotNull BoneModifierType<?> type) {
             return modifiers().hasModifier(type);
         }
+
+        @Override
+        default boolean isEmpty() {
+            return modifiers().isEmpty();
+        }
     }
 }
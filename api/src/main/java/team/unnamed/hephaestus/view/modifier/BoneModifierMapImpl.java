@@ -63,6 +63,11 @@ final class BoneModifierMapImpl implements BoneModifierMap {
         return modifiers.containsKey(type);
     }
 
+    @Override
+    public boolean isEmpty() {
+        return modifiers.isEmpty();
+    }
+
     @Override
     public @NotNull Key modifyItem(@NotNull Key previous) {
         for (BoneModifier modifier : modifiers.values()) {
@@ -0,0 +1,115 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.base.Vector2Float;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.hephaestus.animation.Animation;
+import team.unnamed.hephaestus.animation.interpolation.Interpolators;
+import team.unnamed.hephaestus.animation.timeline.Timeline;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimeline;
+import team.unnamed.hephaestus.animation.timeline.effect.EffectsTimeline;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkeletonTest {
+
+    private static Bone bone(final String name, final Bone... children) {
+        final Map<String, Bone> childMap = new LinkedHashMap<>();
+        for (final Bone child : children) {
+            childMap.put(child.name(), child);
+        }
+        return new Bone(name, new Vector3Float(0, 1, 0), new Vector3Float(0, 0, 45), childMap, 1, 1F, false);
+    }
+
+    private static BoneTimeline timeline() {
+        return BoneTimeline.boneTimeline()
+                .positions(Timeline.<Vector3Float>timeline().initial(Vector3Float.ZERO).defaultInterpolator(Interpolators.lerpVector3Float()).build())
+                .rotations(Timeline.<Vector3Float>timeline().initial(Vector3Float.ZERO).defaultInterpolator(Interpolators.lerpVector3Float()).build())
+                .scales(Timeline.<Vector3Float>timeline().initial(Vector3Float.ONE).defaultInterpolator(Interpolators.lerpVector3Float()).build())
+                .build();
+    }
+
+    @Test
+    void test_topological_order() {
+        final Map<String, Bone> roots = new LinkedHashMap<>();
+        roots.put("body", bone("body", bone("head", bone("hat")), bone("arm")));
+        roots.put("tail", bone("tail"));
+
+        final Model model = new Model("test", roots, new Vector2Float(1, 1), null, Collections.emptyMap());
+        final Skeleton skeleton = model.skeleton();
+
+        assertEquals(5, skeleton.size());
+        for (int index = 0; index < skeleton.size(); index++) {
+            final int parent = skeleton.parent(index);
+            assertTrue(parent < index, "parent must come before its children");
+            if (parent != -1) {
+                assertSame(skeleton.bone(parent).child(skeleton.bone(index).name()), skeleton.bone(index));
+            }
+            assertEquals(index, skeleton.index(skeleton.bone(index).name()));
+            assertEquals(1F, skeleton.restPosition(index, 1), 0F);
+            assertEquals(45F, skeleton.restRotation(index, 2), 0F);
+        }
+        assertEquals(-1, skeleton.parent(skeleton.index("body")));
+        assertEquals(-1, skeleton.parent(skeleton.index("tail")));
+        assertEquals(skeleton.index("head"), skeleton.parent(skeleton.index("hat")));
+        assertEquals(-1, skeleton.index("unknown"));
+    }
+
+    @Test
+    void test_timelines_resolution() {
+        final Map<String, Bone> roots = new LinkedHashMap<>();
+        roots.put("body", bone("body", bone("head")));
+
+        final BoneTimeline headTimeline = timeline();
+        final Animation animation = Animation.animation()
+                .name("idle")
+                .length(10)
+                .loopMode(Animation.LoopMode.LOOP)
+                .timeline("head", headTimeline)
+                .timeline("unknown", timeline())
+                .effectsTimeline(EffectsTimeline.empty().build())
+                .build();
+
+        final Model model = new Model("test", roots, new Vector2Float(1, 1), null, Map.of("idle", animation));
+        final Skeleton skeleton = model.skeleton();
+
+        final BoneTimeline[] timelines = skeleton.timelines(animation);
+        assertEquals(2, timelines.length);
+        assertNull(timelines[skeleton.index("body")]);
+        assertSame(headTimeline, timelines[skeleton.index("head")]);
+
+        // model animations are resolved only once
+        assertSame(timelines, skeleton.timelines(animation));
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.hephaestus.animation.interpolation.Interpolators;
+import team.unnamed.hephaestus.animation.timeline.Timeline;
+import team.unnamed.hephaestus.animation.timeline.bone.BakedBoneTimeline;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneFrame;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimeline;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimelinePlayhead;
+import team.unnamed.hephaestus.animation.timeline.effect.EffectsTimeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static team.unnamed.hephaestus.util.StructureAssertEquals.assertVectorEquals;
+
+class BakedBoneTimelineTest {
+
+    private static BoneTimeline createTimeline() {
+        return BoneTimeline.boneTimeline()
+                .positions(Timeline.<Vector3Float>timeline()
+                        .initial(Vector3Float.ZERO)
+                        .defaultInterpolator(Interpolators.lerpVector3Float())
+                        .keyFrame(0, new Vector3Float(0, 0, 0))
+                        .keyFrame(10, new Vector3Float(20, 10, 0))
+                        .build())
+                .rotations(Timeline.<Vector3Float>timeline()
+                        .initial(Vector3Float.ZERO)
+                        .defaultInterpolator(Interpolators.catmullRomSplineVector3Float())
+                        .keyFrame(0, new Vector3Float(0, 0, 0))
+                        .keyFrame(4, new Vector3Float(-4, -4, -4))
+                        .keyFrame(8, new Vector3Float(4, 4, 4))
+                        .keyFrame(12, new Vector3Float(0, 0, 0))
+                        .build())
+                .scales(Timeline.<Vector3Float>timeline()
+                        .initial(Vector3Float.ONE)
+                        .defaultInterpolator(Interpolators.stepVector3Float())
+                        .keyFrame(5, new Vector3Float(2, 2, 2))
+                        .build())
+                .build();
+    }
+
+    @Test
+    void test_baked_matches_dynamic() {
+        final BoneTimeline timeline = createTimeline();
+        final BakedBoneTimeline baked = BoneTimeline.baked(timeline, 14);
+        assertEquals(14, baked.length());
+
+        final BoneTimelinePlayhead dynamicPlayhead = timeline.createPlayhead();
+        final BoneTimelinePlayhead bakedPlayhead = baked.createPlayhead();
+
+        // also check some ticks after the baked length, they
+        // must hold the last value, as dynamic playheads do
+        for (int tick = 0; tick < 20; tick++) {
+            final BoneFrame expected = dynamicPlayhead.next();
+            final BoneFrame actual = bakedPlayhead.next();
+            assertEquals(tick, bakedPlayhead.tick());
+            assertVectorEquals(expected.position(), actual.position(), 0.0001);
+            assertVectorEquals(expected.rotation(), actual.rotation(), 0.0001);
+            assertVectorEquals(expected.scale(), actual.scale(), 0.0001);
+        }
+    }
+
+    @Test
+    void test_random_access() {
+        final BakedBoneTimeline baked = BoneTimeline.baked(createTimeline(), 11);
+        assertVectorEquals(new Vector3Float(0, 0, 0), baked.frame(0).position(), 0.0001);
+        assertVectorEquals(new Vector3Float(10, 5, 0), baked.frame(5).position(), 0.0001);
+        assertVectorEquals(new Vector3Float(20, 10, 0), baked.frame(10).position(), 0.0001);
+        // clamped
+        assertVectorEquals(new Vector3Float(20, 10, 0), baked.frame(50).position(), 0.0001);
+        assertVectorEquals(new Vector3Float(0, 0, 0), baked.frame(-1).position(), 0.0001);
+
+        // frames are created once per tick
+        assertSame(baked.frame(5), baked.frame(5));
+        assertSame(baked.frame(10), baked.frame(50));
+
+        // or written into the caller's buffer
+        final float[] buffer = new float[10];
+        baked.frame(5, buffer, 1);
+        assertEquals(10F, buffer[1], 0.0001);
+        assertEquals(5F, buffer[2], 0.0001);
+        assertEquals(0F, buffer[3], 0.0001);
+    }
+
+    @Test
+    void test_animation_builder_bakes() {
+        final BoneTimeline timeline = createTimeline();
+        final Animation animation = Animation.animation()
+                .name("idle")
+                .length(12)
+                .loopMode(Animation.LoopMode.LOOP)
+                .timeline("body", timeline)
+                .effectsTimeline(EffectsTimeline.empty().build())
+                .baked(true)
+                .build();
+
+        final BoneTimeline bakedTimeline = animation.timelines().get("body");
+        assertTrue(bakedTimeline instanceof BakedBoneTimeline);
+        assertEquals(12, ((BakedBoneTimeline) bakedTimeline).length());
+        assertSame(timeline.positions(), bakedTimeline.positions());
+
+        // baking an already baked timeline is a no-op
+        assertSame(bakedTimeline, BoneTimeline.baked(bakedTimeline, 12));
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.hephaestus.animation.timeline.effect.EffectsFrame;
+import team.unnamed.hephaestus.animation.timeline.effect.EffectsTimeline;
+import team.unnamed.hephaestus.animation.timeline.effect.EffectsTimelinePlayhead;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EffectsTimelineTest {
+
+    private static EffectsTimeline createTimeline() {
+        return EffectsTimeline.effectsTimeline()
+                .sounds(Collections.emptyMap())
+                .instructions(Map.of(
+                        2, List.of("v.a = 1;"),
+                        7, List.of("v.b = 2;", "v.c = 3;")
+                ))
+                .build();
+    }
+
+    @Test
+    void test_empty_ticks_return_initial_frame() {
+        final EffectsTimelinePlayhead playhead = EffectsTimeline.empty().build().createPlayhead();
+        for (int tick = 0; tick < 20; tick++) {
+            assertSame(EffectsFrame.INITIAL, playhead.next());
+            assertEquals(tick, playhead.tick());
+        }
+    }
+
+    @Test
+    void test_frames_at_effect_ticks() {
+        final EffectsTimelinePlayhead playhead = createTimeline().createPlayhead();
+        for (int tick = 0; tick < 10; tick++) {
+            final EffectsFrame frame = playhead.next();
+            switch (tick) {
+                case 2 -> assertEquals(List.of("v.a = 1;"), frame.instructions());
+                case 7 -> assertEquals(List.of("v.b = 2;", "v.c = 3;"), frame.instructions());
+                default -> assertSame(EffectsFrame.INITIAL, frame);
+            }
+        }
+    }
+
+    @Test
+    void test_instructions_are_compiled_once() {
+        final EffectsTimeline timeline = createTimeline();
+        final EffectsTimelinePlayhead first = timeline.createPlayhead();
+        final EffectsTimelinePlayhead second = timeline.createPlayhead();
+        first.seek(7);
+        second.seek(7);
+
+        final EffectsFrame frame = first.next();
+        assertEquals(frame.instructions().size(), frame.compiledInstructions().size());
+        assertSame(frame.compiledInstructions(), second.next().compiledInstructions());
+    }
+
+    @Test
+    void test_seek() {
+        final EffectsTimelinePlayhead playhead = createTimeline().createPlayhead();
+        playhead.seek(7);
+        assertEquals(List.of("v.b = 2;", "v.c = 3;"), playhead.next().instructions());
+        assertSame(EffectsFrame.INITIAL, playhead.next());
+
+        // backwards
+        playhead.seek(1);
+        assertSame(EffectsFrame.INITIAL, playhead.next());
+        assertEquals(List.of("v.a = 1;"), playhead.next().instructions());
+
+        // past the last effect
+        playhead.seek(8);
+        for (int i = 0; i < 5; i++) {
+            assertSame(EffectsFrame.INITIAL, playhead.next());
+        }
+    }
+
+}
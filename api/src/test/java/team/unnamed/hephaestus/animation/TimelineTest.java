@@ -34,6 +34,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static team.unnamed.hephaestus.util.StructureAssertEquals.assertVectorEquals;
 
 class TimelineTest {
@@ -288,4 +289,50 @@ class TimelineTest {
         );
     }
 
+    @Test
+    void test_interpolations_are_shared_between_playheads() {
+        final Timeline<Vector3Float> timeline = Timeline.<Vector3Float>timeline()
+                .initial(Vector3Float.ZERO)
+                .defaultInterpolator(Interpolators.bezierVector3Float(200))
+                .keyFrame(2, new Vector3Float(0, 0, 0))
+                .keyFrame(10, new Vector3Float(8, 4, 2))
+                .keyFrame(20, new Vector3Float(-8, 0, 2))
+                .build();
+
+        assertSame(timeline.interpolation(0), timeline.interpolation(0));
+        assertSame(timeline.interpolation(1), timeline.interpolation(1));
+
+        final Playhead<Vector3Float> first = timeline.createPlayhead();
+        final Playhead<Vector3Float> second = timeline.createPlayhead();
+        for (int tick = 0; tick < 25; tick++) {
+            assertVectorEquals(first.next(), second.next(), 0.0001);
+        }
+    }
+
+    @Test
+    void test_seek_matches_sequential_playback() {
+        final Timeline<Vector3Float> timeline = Timeline.<Vector3Float>timeline()
+                .initial(Vector3Float.ZERO)
+                .defaultInterpolator(Interpolators.lerpVector3Float())
+                .keyFrame(3, new Vector3Float(0, 0, 0))
+                .keyFrame(10, new Vector3Float(7, 14, 7))
+                .keyFrame(11, new Vector3Float(1, 1, 1))
+                .keyFrame(20, new Vector3Float(-8, 0, 2), Interpolators.stepVector3Float())
+                .build();
+
+        final Vector3Float[] expected = new Vector3Float[30];
+        final Playhead<Vector3Float> sequential = timeline.createPlayhead();
+        for (int tick = 0; tick < expected.length; tick++) {
+            expected[tick] = sequential.next();
+        }
+
+        final Playhead<Vector3Float> playhead = timeline.createPlayhead();
+        for (final int tick : new int[] { 15, 0, 29, 3, 10, 11, 4, 20, 19 }) {
+            playhead.seek(tick);
+            for (int i = tick; i < Math.min(tick + 3, expected.length); i++) {
+                assertVectorEquals(expected[i], playhead.next(), 0.0001);
+            }
+        }
+    }
+
 }
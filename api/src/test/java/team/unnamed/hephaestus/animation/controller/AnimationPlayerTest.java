@@ -0,0 +1,580 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.animation.controller;
+
+import net.kyori.adventure.sound.Sound;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.base.Vector2Float;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.hephaestus.Bone;
+import team.unnamed.hephaestus.Model;
+import team.unnamed.hephaestus.Skeleton;
+import team.unnamed.hephaestus.animation.Animation;
+import team.unnamed.hephaestus.animation.interpolation.Interpolators;
+import team.unnamed.hephaestus.animation.timeline.Timeline;
+import team.unnamed.hephaestus.animation.timeline.bone.BoneTimeline;
+import team.unnamed.hephaestus.animation.timeline.effect.EffectsTimeline;
+import team.unnamed.hephaestus.util.Quaternion;
+import team.unnamed.hephaestus.view.AbstractBoneView;
+import team.unnamed.hephaestus.view.AbstractModelView;
+import team.unnamed.hephaestus.view.modifier.BoneModifier;
+import team.unnamed.hephaestus.view.modifier.BoneModifierType;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static team.unnamed.hephaestus.util.StructureAssertEquals.assertQuaternionEquals;
+import static team.unnamed.hephaestus.util.StructureAssertEquals.assertVectorEquals;
+
+class AnimationPlayerTest {
+
+    private static final Vector3Float BODY_POSITION = new Vector3Float(0, 1, 0);
+    private static final Vector3Float HEAD_POSITION = new Vector3Float(0, 0.5F, 0);
+
+    private static Model createModel(final @NotNull Animation... animations) {
+        final Bone head = new Bone("head", HEAD_POSITION, Vector3Float.ZERO, Collections.emptyMap(), 2, 1F, false);
+        final Bone body = new Bone("body", BODY_POSITION, Vector3Float.ZERO, Map.of("head", head), 1, 1F, false);
+        final Map<String, Animation> animationMap = new LinkedHashMap<>();
+        for (final Animation animation : animations) {
+            animationMap.put(animation.name(), animation);
+        }
+        return new Model("test", Map.of("body", body), new Vector2Float(1, 1), null, animationMap);
+    }
+
+    private static Animation createWalkAnimation(final boolean baked) {
+        // moves the body 1 block per tick in the x axis,
+        // the head is kept in its initial position
+        return Animation.animation()
+                .name("walk")
+                .length(10)
+                .loopMode(Animation.LoopMode.LOOP)
+                .timeline("body", BoneTimeline.boneTimeline()
+                        .positions(Timeline.<Vector3Float>timeline()
+                                .initial(Vector3Float.ZERO)
+                                .defaultInterpolator(Interpolators.lerpVector3Float())
+                                .keyFrame(0, Vector3Float.ZERO)
+                                .keyFrame(9, new Vector3Float(9, 0, 0))
+                                .build())
+                        .rotations(Timeline.<Vector3Float>timeline().initial(Vector3Float.ZERO).defaultInterpolator(Interpolators.lerpVector3Float()).build())
+                        .scales(Timeline.<Vector3Float>timeline().initial(Vector3Float.ONE).defaultInterpolator(Interpolators.lerpVector3Float()).build())
+                        .build())
+                .effectsTimeline(EffectsTimeline.empty().build())
+                .baked(baked)
+                .build();
+    }
+
+    private static void testWalk(final boolean baked) {
+        final Animation walk = createWalkAnimation(baked);
+        final TestModelView view = new TestModelView(createModel(walk));
+        view.animationPlayer().add(walk);
+
+        for (int tick = 0; tick < 25; tick++) {
+            view.tickAnimations();
+            // the animation loops every 10 ticks
+            final float x = tick % 10;
+            final Vector3Float bodyPosition = BODY_POSITION.add(x, 0, 0);
+            assertVectorEquals(bodyPosition, view.bone("body").position(), 0.0001);
+            assertVectorEquals(bodyPosition.add(HEAD_POSITION), view.bone("head").position(), 0.0001);
+        }
+    }
+
+    @Test
+    void test_walk() {
+        testWalk(false);
+    }
+
+    @Test
+    void test_walk_baked() {
+        testWalk(true);
+    }
+
+    private static Animation createWaveAnimation() {
+        return Animation.animation()
+                .name("wave")
+                .length(20)
+                .loopMode(Animation.LoopMode.LOOP)
+                .timeline("body", BoneTimeline.boneTimeline()
+                        .positions(Timeline.<Vector3Float>timeline().initial(Vector3Float.ZERO).defaultInterpolator(Interpolators.lerpVector3Float()).build())
+                        .rotations(Timeline.<Vector3Float>timeline()
+                                .initial(Vector3Float.ZERO)
+                                .defaultInterpolator(Interpolators.lerpVector3Float())
+                                .keyFrame(0, Vector3Float.ZERO)
+                                .keyFrame(19, new Vector3Float(38, 95, -19))
+                                .build())
+                        .scales(Timeline.<Vector3Float>timeline()
+                                .initial(Vector3Float.ONE)
+                                .defaultInterpolator(Interpolators.lerpVector3Float())
+                                .keyFrame(0, Vector3Float.ONE)
+                                .keyFrame(19, new Vector3Float(2, 2, 2))
+                                .build())
+                        .build())
+                .effectsTimeline(EffectsTimeline.empty().build())
+                .build();
+    }
+
+    @Test
+    void test_add_from_other_thread_is_applied_on_next_tick() throws InterruptedException {
+        final Animation walk = createWalkAnimation(false);
+        final TestModelView view = new TestModelView(createModel(walk));
+
+        final Thread thread = new Thread(() -> view.animationPlayer().add(walk));
+        thread.start();
+        thread.join();
+
+        view.tickAnimations();
+        view.tickAnimations();
+        assertVectorEquals(BODY_POSITION.add(1, 0, 0), view.bone("body").position(), 0.0001);
+    }
+
+    @Test
+    void test_rotation_matches_object_math() {
+        final Animation wave = createWaveAnimation();
+        final TestModelView view = new TestModelView(createModel(wave));
+        view.animationPlayer().add(wave);
+
+        final float yaw = 30;
+        final float pitch = 10;
+        final Vector3Float origin = new Vector3Float(1, 2, 3);
+        final Quaternion initialRotation = Quaternion.fromEulerDegrees(new Vector3Float(pitch, 360 - yaw, 0));
+
+        for (int tick = 0; tick < 19; tick++) {
+            view.animationPlayer().tick(yaw, pitch, origin);
+
+            final float progress = tick / 19F;
+            final Vector3Float bodyScale = new Vector3Float(1 + progress, 1 + progress, 1 + progress);
+            final Quaternion bodyRotation = initialRotation.multiply(Quaternion.fromEulerDegrees(new Vector3Float(2 * tick, 5 * tick, -tick)));
+            final Vector3Float bodyPosition = initialRotation.transform(BODY_POSITION.multiply(bodyScale)).add(origin);
+            final Vector3Float headPosition = bodyRotation.transform(HEAD_POSITION.multiply(bodyScale)).add(bodyPosition);
+
+            final TestBoneView body = view.bone("body");
+            final TestBoneView head = view.bone("head");
+            assertVectorEquals(bodyPosition, body.position(), 0.0001);
+            assertVectorEquals(bodyScale, body.scale(), 0.0001);
+            assertQuaternionEquals(bodyRotation, body.rotation(), 0.0001);
+            assertVectorEquals(headPosition, head.position(), 0.0001);
+            assertQuaternionEquals(bodyRotation, head.rotation(), 0.0001);
+        }
+    }
+
+    @Test
+    void test_advance_matches_sequential_ticks() {
+        final Animation wave = createWaveAnimation();
+        final Model model = createModel(wave);
+        final TestModelView sequential = new TestModelView(model, null);
+        final TestModelView skipping = new TestModelView(model, null);
+        sequential.animationPlayer().add(wave);
+        skipping.animationPlayer().add(wave);
+
+        final int interval = 4;
+        for (int tick = 1; tick <= 60; tick++) {
+            sequential.animationPlayer().tick(30, 10);
+            if (tick % interval != 0) {
+                continue;
+            }
+
+            skipping.animationPlayer().advance(interval - 1);
+            skipping.animationPlayer().tick(30, 10);
+            for (final String name : new String[] { "body", "head" }) {
+                final TestBoneView expected = sequential.bone(name);
+                final TestBoneView actual = skipping.bone(name);
+                assertVectorEquals(expected.position(), actual.position(), 0.0001);
+                assertQuaternionEquals(expected.rotation(), actual.rotation(), 0.0001);
+                assertVectorEquals(expected.scale(), actual.scale(), 0.0001);
+            }
+        }
+    }
+
+    @Test
+    void test_fast_forward_matches_sequential_ticks() {
+        final Animation walk = createWalkAnimation(false);
+        final Animation wave = createWaveAnimation();
+        final Model model = createModel(walk, wave);
+        for (final int skipped : new int[] { 0, 1, 5, 19, 20, 21, 47, 1000 }) {
+            final TestModelView sequential = new TestModelView(model, null);
+            final TestModelView fastForwarded = new TestModelView(model, null);
+            for (final TestModelView view : new TestModelView[] { sequential, fastForwarded }) {
+                view.animationPlayer().add(walk);
+                view.animationPlayer().tick();
+                view.animationPlayer().tick();
+                // queues a transition, then the wave
+                view.animationPlayer().add(wave, 4);
+            }
+
+            for (int tick = 0; tick < skipped; tick++) {
+                sequential.animationPlayer().tick();
+            }
+            fastForwarded.animationPlayer().fastForward(skipped);
+
+            for (int tick = 0; tick < 25; tick++) {
+                sequential.animationPlayer().tick();
+                fastForwarded.animationPlayer().tick();
+                for (final String name : new String[] { "body", "head" }) {
+                    final TestBoneView expected = sequential.bone(name);
+                    final TestBoneView actual = fastForwarded.bone(name);
+                    assertVectorEquals(expected.position(), actual.position(), 0.0001);
+                    assertQuaternionEquals(expected.rotation(), actual.rotation(), 0.0001);
+                    assertVectorEquals(expected.scale(), actual.scale(), 0.0001);
+                }
+            }
+        }
+    }
+
+    @Test
+    void test_static_channels_are_detected() {
+        final Animation walk = createWalkAnimation(false);
+        final Animation wave = createWaveAnimation();
+        final Skeleton skeleton = createModel(walk, wave).skeleton();
+        final int body = skeleton.index("body");
+        final int head = skeleton.index("head");
+
+        assertEquals(Skeleton.ROTATION_CHANNEL | Skeleton.SCALE_CHANNEL, skeleton.staticChannels(walk)[body]);
+        assertEquals(Skeleton.ALL_CHANNELS, skeleton.staticChannels(walk)[head]);
+        assertEquals(Skeleton.POSITION_CHANNEL, skeleton.staticChannels(wave)[body]);
+    }
+
+    @Test
+    void test_unchanged_bones_are_not_updated() {
+        // only moves the head, and keeps it still after tick 4
+        final Animation nod = Animation.animation()
+                .name("nod")
+                .length(10)
+                .loopMode(Animation.LoopMode.HOLD)
+                .timeline("head", BoneTimeline.boneTimeline()
+                        .positions(Timeline.<Vector3Float>timeline().initial(Vector3Float.ZERO).defaultInterpolator(Interpolators.lerpVector3Float()).build())
+                        .rotations(Timeline.<Vector3Float>timeline()
+                                .initial(Vector3Float.ZERO)
+                                .defaultInterpolator(Interpolators.lerpVector3Float())
+                                .keyFrame(0, Vector3Float.ZERO)
+                                .keyFrame(4, new Vector3Float(40, 0, 0))
+                                .keyFrame(9, new Vector3Float(40, 0, 0))
+                                .build())
+                        .scales(Timeline.<Vector3Float>timeline().initial(Vector3Float.ONE).defaultInterpolator(Interpolators.lerpVector3Float()).build())
+                        .build())
+                .effectsTimeline(EffectsTimeline.empty().build())
+                .build();
+        final TestModelView view = new TestModelView(createModel(nod));
+        view.animationPlayer().add(nod);
+
+        for (int tick = 0; tick < 10; tick++) {
+            view.tickAnimations();
+        }
+
+        // the body is only updated when first evaluated, and the
+        // head only while its frames change (ticks 0 to 4)
+        assertEquals(1, view.bone("body").updates);
+        assertEquals(5, view.bone("head").updates);
+        assertQuaternionEquals(
+                Quaternion.fromEulerDegrees(new Vector3Float(40, 0, 0)),
+                view.bone("head").rotation(),
+                0.0001
+        );
+
+        // rotating the model changes every bone
+        view.animationPlayer().tick(90, 0);
+        assertEquals(2, view.bone("body").updates);
+        assertEquals(6, view.bone("head").updates);
+    }
+
+    @Test
+    void test_cached_pose_matches_evaluated_pose() {
+        final Animation wave = createWaveAnimation();
+        final Model model = createModel(wave);
+        final TestModelView first = new TestModelView(model, model.poseCache());
+        final TestModelView second = new TestModelView(model, model.poseCache());
+        final TestModelView uncached = new TestModelView(model, null);
+        first.animationPlayer().add(wave);
+        second.animationPlayer().add(wave);
+        uncached.animationPlayer().add(wave);
+
+        final Vector3Float origin = new Vector3Float(-4, 7, 2);
+        for (int tick = 0; tick < 45; tick++) {
+            // the first view evaluates the poses, the
+            // second one reuses them with another root
+            first.animationPlayer().tick(30, 10, Vector3Float.ZERO);
+            second.animationPlayer().tick(120, -5, origin);
+            uncached.animationPlayer().tick(120, -5, origin);
+
+            for (final String name : new String[] { "body", "head" }) {
+                final TestBoneView expected = uncached.bone(name);
+                final TestBoneView actual = second.bone(name);
+                assertVectorEquals(expected.position(), actual.position(), 0.0001);
+                assertQuaternionEquals(expected.rotation(), actual.rotation(), 0.0001);
+                assertVectorEquals(expected.scale(), actual.scale(), 0.0001);
+            }
+        }
+
+        final var cachedPoses = ((PoseCacheImpl) model.poseCache()).entry(wave);
+        assertNotNull(cachedPoses);
+        assertNotNull(cachedPoses.get(0));
+    }
+
+    @Test
+    void test_steady_state_tick_does_not_allocate() {
+        final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported(), "allocated memory measurement not supported");
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        final Animation walk = createWalkAnimation(true);
+        final TestModelView view = new TestModelView(createModel(walk));
+        final AnimationPlayer player = view.animationPlayer();
+        player.add(walk);
+
+        // warm up, lets the JIT compile the tick path
+        for (int i = 0; i < 20_000; i++) {
+            player.tick(30F, 10F, Vector3Float.ZERO);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            player.tick(30F, 10F, Vector3Float.ZERO);
+        }
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        // allow some bytes for the measurement itself, but not a single
+        // object per tick (which would be at least 16 bytes * 10_000 ticks)
+        assertTrue(allocated < 10_000, "Expected no allocation per tick, but " + allocated + " bytes were allocated");
+    }
+
+    @Test
+    void test_keyframes_interpolate_linear_spans() {
+        final Animation walk = createWalkAnimation(false);
+        final TestModelView view = new TestModelView(createModel(walk), null, true);
+        for (final TestBoneView bone : view.bones()) {
+            bone.interpolates = true;
+        }
+        view.animationPlayer().add(walk);
+
+        final TestBoneView body = view.bone("body");
+        assertNotNull(body);
+        for (int tick = 0; tick < 30; tick++) {
+            view.animationPlayer().tick(0, 0);
+            if (tick % 10 == 0) {
+                // the start pose is shown when looping, instead
+                // of interpolating from the end pose of the loop
+                assertVectorEquals(BODY_POSITION, body.position(), 0.0001);
+            }
+        }
+
+        // the first tick moves the root, so it is a normal update, and the second
+        // one starts the animation, which is updated to its exact pose; then every
+        // loop updates its start pose, interpolates from it towards its last tick
+        // on the next tick, and updates its last tick
+        assertEquals(3, body.interpolations);
+        assertEquals(7, body.updates);
+        assertVectorEquals(BODY_POSITION.add(9, 0, 0), body.position(), 0.0001);
+
+        // interpolating is not possible while the root moves
+        final TestModelView rotated = new TestModelView(createModel(walk), null, true);
+        for (final TestBoneView bone : rotated.bones()) {
+            bone.interpolates = true;
+        }
+        rotated.animationPlayer().add(walk);
+        for (int tick = 0; tick < 30; tick++) {
+            rotated.animationPlayer().tick(tick * 10, 0);
+        }
+        final TestBoneView rotatedBody = rotated.bone("body");
+        assertNotNull(rotatedBody);
+        assertEquals(0, rotatedBody.interpolations);
+        assertEquals(30, rotatedBody.updates);
+    }
+
+    static final class TestModelView implements AbstractModelView<Object> {
+
+        private final Model model;
+        private final AnimationPlayer animationPlayer;
+        private final Map<String, TestBoneView> bones = new LinkedHashMap<>();
+
+        TestModelView(final @NotNull Model model) {
+            this(model, null);
+        }
+
+        TestModelView(final @NotNull Model model, final @Nullable PoseCache poseCache) {
+            this(model, poseCache, false);
+        }
+
+        TestModelView(final @NotNull Model model, final @Nullable PoseCache poseCache, final boolean keyframes) {
+            this.model = model;
+            this.animationPlayer = new AnimationPlayerImpl(this, poseCache, keyframes);
+            for (int index = 0; index < model.skeleton().size(); index++) {
+                final Bone bone = model.skeleton().bone(index);
+                bones.put(bone.name(), new TestBoneView(bone));
+            }
+        }
+
+        @Override
+        public @NotNull Model model() {
+            return model;
+        }
+
+        @Override
+        public Collection<Object> viewers() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean addViewer(final Object viewer) {
+            return false;
+        }
+
+        @Override
+        public boolean removeViewer(final Object viewer) {
+            return false;
+        }
+
+        @Override
+        public void emitSound(final @NotNull Sound sound) {
+        }
+
+        @Override
+        public Collection<TestBoneView> bones() {
+            return bones.values();
+        }
+
+        @Override
+        public @Nullable TestBoneView bone(final String name) {
+            return bones.get(name);
+        }
+
+        @Override
+        public @NotNull AnimationPlayer animationPlayer() {
+            return animationPlayer;
+        }
+
+    }
+
+    static final class TestBoneView implements AbstractBoneView {
+
+        private final Bone bone;
+
+        // kept as primitives, so that updating a bone view does not allocate
+        private float positionX, positionY, positionZ;
+        private double rotationX, rotationY, rotationZ, rotationW = 1;
+        private float scaleX = 1, scaleY = 1, scaleZ = 1;
+        private int updates;
+        private boolean interpolates;
+        private int interpolations;
+
+        TestBoneView(final @NotNull Bone bone) {
+            this.bone = bone;
+        }
+
+        Vector3Float position() {
+            return new Vector3Float(positionX, positionY, positionZ);
+        }
+
+        Quaternion rotation() {
+            return new Quaternion(rotationX, rotationY, rotationZ, rotationW);
+        }
+
+        Vector3Float scale() {
+            return new Vector3Float(scaleX, scaleY, scaleZ);
+        }
+
+        @Override
+        public @NotNull Bone bone() {
+            return bone;
+        }
+
+        @Override
+        public void colorize(final int red, final int green, final int blue) {
+        }
+
+        @Override
+        public void update(final @NotNull Vector3Float position, final @NotNull Quaternion rotation, final @NotNull Vector3Float scale) {
+            update(
+                    position.x(), position.y(), position.z(),
+                    rotation.x(), rotation.y(), rotation.z(), rotation.w(),
+                    scale.x(), scale.y(), scale.z()
+            );
+        }
+
+        @Override
+        public void update(
+                final float positionX, final float positionY, final float positionZ,
+                final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+                final float scaleX, final float scaleY, final float scaleZ
+        ) {
+            this.positionX = positionX;
+            this.positionY = positionY;
+            this.positionZ = positionZ;
+            this.rotationX = rotationX;
+            this.rotationY = rotationY;
+            this.rotationZ = rotationZ;
+            this.rotationW = rotationW;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.scaleZ = scaleZ;
+            updates++;
+        }
+
+        @Override
+        public boolean interpolate(
+                final float positionX, final float positionY, final float positionZ,
+                final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+                final float scaleX, final float scaleY, final float scaleZ,
+                final int ticks
+        ) {
+            if (!interpolates) {
+                return false;
+            }
+            update(positionX, positionY, positionZ, rotationX, rotationY, rotationZ, rotationW, scaleX, scaleY, scaleZ);
+            updates--;
+            interpolations++;
+            return true;
+        }
+
+        @Override
+        public <T extends BoneModifier> void removeModifier(final @NotNull BoneModifierType<T> type) {
+        }
+
+        @Override
+        public <T extends BoneModifier> void configure(final @NotNull BoneModifierType<T> type, final @NotNull Consumer<T> configure) {
+        }
+
+        @Override
+        public boolean hasModifier(final @NotNull BoneModifierType<?> type) {
+            return false;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,398 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view;
+
+import net.kyori.adventure.sound.Sound;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+import team.unnamed.hephaestus.Model;
+import team.unnamed.hephaestus.animation.controller.AnimationPlayer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelViewTickerTest {
+
+    @Test
+    void test_ticks_registered_views() {
+        final ModelViewTicker ticker = ModelViewTicker.create();
+        final CountingView first = new CountingView();
+        final CountingView second = new CountingView();
+
+        assertTrue(ticker.register(first));
+        assertTrue(ticker.register(second));
+        assertFalse(ticker.register(first));
+
+        ticker.tick();
+        ticker.tick();
+        assertEquals(2, first.ticks);
+        assertEquals(2, second.ticks);
+
+        assertTrue(ticker.unregister(first));
+        assertFalse(ticker.unregister(first));
+        ticker.tick();
+        assertEquals(2, first.ticks);
+        assertEquals(3, second.ticks);
+    }
+
+    @Test
+    void test_removed_views_are_unregistered() {
+        final ModelViewTicker ticker = ModelViewTicker.create();
+        final CountingView view = new CountingView();
+        ticker.register(view);
+
+        ticker.tick();
+        view.removed = true;
+        ticker.tick();
+
+        assertEquals(1, view.ticks);
+        assertTrue(ticker.views().isEmpty());
+    }
+
+    @Test
+    void test_failing_view_does_not_stop_others() {
+        final ModelViewTicker ticker = ModelViewTicker.create();
+        final CountingView failing = new CountingView();
+        final CountingView other = new CountingView();
+        failing.fail = true;
+        ticker.register(failing);
+        ticker.register(other);
+
+        assertThrows(IllegalStateException.class, ticker::tick);
+        assertEquals(1, other.ticks);
+        assertEquals(2, ticker.views().size());
+    }
+
+    @Test
+    void test_parallel_evaluation_applies_in_ticking_thread() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final ModelViewTicker ticker = ModelViewTicker.create(executor);
+            final List<CountingView> views = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                final CountingView view = new CountingView();
+                views.add(view);
+                ticker.register(view);
+            }
+
+            ticker.tick();
+            ticker.tick();
+
+            for (final CountingView view : views) {
+                assertEquals(2, view.evaluations.get());
+                assertEquals(2, view.ticks);
+                assertSame(Thread.currentThread(), view.appliedBy);
+            }
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void test_level_of_detail_evaluates_far_views_less_often() {
+        final ModelViewTicker ticker = ModelViewTicker.create();
+        ticker.levelOfDetail(LevelOfDetail.levelOfDetail()
+                .band(16, 1)
+                .band(48, 4)
+                .beyond(10)
+                .build());
+
+        final CountingView near = new CountingView();
+        final CountingView far = new CountingView();
+        final CountingView distant = new CountingView();
+        near.distanceSquared = 8 * 8;
+        far.distanceSquared = 32 * 32;
+        distant.distanceSquared = 200 * 200;
+        ticker.register(near);
+        ticker.register(far);
+        ticker.register(distant);
+
+        for (int i = 0; i < 40; i++) {
+            ticker.tick();
+        }
+
+        assertEquals(40, near.ticks);
+        assertEquals(1, near.interval);
+        assertEquals(4, far.interval);
+        assertEquals(10, distant.interval);
+        // the first tick always evaluates, then every interval
+        assertTrue(far.ticks >= 10 && far.ticks <= 11, "far ticks: " + far.ticks);
+        assertTrue(distant.ticks >= 4 && distant.ticks <= 5, "distant ticks: " + distant.ticks);
+        // no animation tick is lost, just evaluated later
+        assertTrue(far.elapsed > 40 - 4 && far.elapsed <= 40);
+        assertTrue(distant.elapsed > 40 - 10 && distant.elapsed <= 40);
+    }
+
+    @Test
+    void test_views_without_viewers_sleep_and_catch_up() {
+        final ModelViewTicker ticker = ModelViewTicker.create();
+        final CountingView view = new CountingView();
+        ticker.register(view);
+
+        ticker.tick();
+        view.distanceSquared = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < 50; i++) {
+            ticker.tick();
+        }
+        assertEquals(1, view.ticks);
+        assertEquals(0, view.fastForwarded);
+
+        // seen again, skipped ticks are fast-forwarded at once
+        view.distanceSquared = 0;
+        ticker.tick();
+        assertEquals(2, view.ticks);
+        assertEquals(50, view.fastForwarded);
+        assertEquals(2, view.elapsed);
+
+        ticker.tick();
+        assertEquals(3, view.ticks);
+        assertEquals(50, view.fastForwarded);
+    }
+
+    @Test
+    void test_views_losing_their_last_viewer_sleep_until_removed() {
+        final ModelViewTicker ticker = ModelViewTicker.create();
+        final CountingView view = new CountingView();
+        final Object viewer = new Object();
+        view.addViewer(viewer);
+        ticker.register(view);
+        ticker.tick();
+
+        // views without viewers are not applied anymore, so
+        // nothing can rely on a later apply to hide them
+        assertTrue(view.removeViewer(viewer));
+        for (int i = 0; i < 50; i++) {
+            ticker.tick();
+        }
+        assertEquals(1, view.ticks);
+
+        // and removing it while it sleeps unregisters it
+        view.removed = true;
+        ticker.tick();
+        assertEquals(1, view.ticks);
+        assertTrue(ticker.views().isEmpty());
+    }
+
+    @Test
+    void test_level_of_detail_bands_must_increase() {
+        final LevelOfDetail.Builder builder = LevelOfDetail.levelOfDetail().band(16, 1);
+        assertThrows(IllegalArgumentException.class, () -> builder.band(8, 2));
+        assertThrows(IllegalArgumentException.class, () -> builder.band(32, 0));
+        assertEquals(1, LevelOfDetail.none().interval(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void test_budget_defers_views_fairly() {
+        final ModelViewTicker ticker = ModelViewTicker.create();
+        ticker.budget(Duration.ofMillis(1));
+        final List<CountingView> views = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final CountingView view = new CountingView();
+            // every view takes the whole budget
+            view.evaluationTime = Duration.ofMillis(2);
+            views.add(view);
+            ticker.register(view);
+        }
+
+        ticker.tick();
+        assertEquals(9, ticker.lastDeferred());
+        assertEquals(1, ticker.overruns());
+
+        for (int i = 1; i < 10; i++) {
+            ticker.tick();
+        }
+        assertEquals(10, ticker.overruns());
+        assertEquals(9 * 10, ticker.totalDeferred());
+        for (int i = 0; i < views.size(); i++) {
+            // every view was ticked once, in order, catching
+            // up with the ticks it was deferred
+            assertEquals(1, views.get(i).ticks);
+            assertEquals(i + 1, views.get(i).elapsed);
+        }
+
+        ticker.budget(Duration.ZERO);
+        ticker.tick();
+        assertEquals(0, ticker.lastDeferred());
+        for (final CountingView view : views) {
+            assertEquals(2, view.ticks);
+            assertEquals(11, view.elapsed);
+        }
+    }
+
+    @Test
+    void test_budget_prefers_priority_then_closest() {
+        final ModelViewTicker ticker = ModelViewTicker.create();
+        ticker.budget(Duration.ofMillis(1));
+        final CountingView far = new CountingView();
+        final CountingView close = new CountingView();
+        final CountingView important = new CountingView();
+        far.distanceSquared = 100;
+        important.distanceSquared = 200;
+        for (final CountingView view : List.of(far, close, important)) {
+            // every view takes the whole budget
+            view.evaluationTime = Duration.ofMillis(2);
+        }
+        ticker.register(far);
+        ticker.register(close);
+        ticker.register(important, 1);
+
+        // priority first, then the closest of the equally late
+        ticker.tick();
+        assertEquals(1, important.ticks);
+        assertEquals(0, close.ticks);
+        ticker.tick();
+        assertEquals(1, close.ticks);
+        assertEquals(0, far.ticks);
+
+        // the far view was deferred for two ticks, so it is now as late
+        // as the important view plus its priority, and it is closer
+        ticker.tick();
+        assertEquals(1, far.ticks);
+        assertEquals(1, important.ticks);
+    }
+
+    private static final class CountingView implements AbstractModelView<Object> {
+
+        private final AtomicInteger evaluations = new AtomicInteger();
+        private final Set<Object> viewers = new HashSet<>();
+        private Thread appliedBy;
+        private int ticks;
+        private boolean removed;
+        private boolean fail;
+        private double distanceSquared;
+        private int elapsed;
+        private int interval;
+        private int fastForwarded;
+        private Duration evaluationTime = Duration.ZERO;
+
+        @Override
+        public @NotNull Model model() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<Object> viewers() {
+            return viewers;
+        }
+
+        @Override
+        public boolean addViewer(final Object viewer) {
+            return viewers.add(viewer);
+        }
+
+        @Override
+        public boolean removeViewer(final Object viewer) {
+            if (!viewers.remove(viewer)) {
+                return false;
+            }
+            if (viewers.isEmpty()) {
+                distanceSquared = Double.POSITIVE_INFINITY;
+            }
+            return true;
+        }
+
+        @Override
+        public void emitSound(final @NotNull Sound sound) {
+        }
+
+        @Override
+        public Collection<? extends AbstractBoneView> bones() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public @Nullable AbstractBoneView bone(final String name) {
+            return null;
+        }
+
+        @Override
+        public @NotNull AnimationPlayer animationPlayer() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean removed() {
+            return removed;
+        }
+
+        @Override
+        public void evaluateAnimations() {
+            if (fail) {
+                throw new IllegalStateException("failing view");
+            }
+            evaluations.incrementAndGet();
+        }
+
+        @Override
+        public void evaluateAnimations(final int ticks) {
+            elapsed += ticks;
+            evaluateAnimations();
+            final long end = System.nanoTime() + evaluationTime.toNanos();
+            while (System.nanoTime() < end) {
+                Thread.onSpinWait();
+            }
+        }
+
+        @Override
+        public void fastForwardAnimations(final int ticks) {
+            fastForwarded += ticks;
+        }
+
+        @Override
+        public void applyAnimations(final int interval) {
+            this.interval = interval;
+            applyAnimations();
+        }
+
+        @Override
+        public double closestViewerDistanceSquared() {
+            return distanceSquared;
+        }
+
+        @Override
+        public void applyAnimations() {
+            appliedBy = Thread.currentThread();
+            ticks++;
+        }
+
+    }
+
+}
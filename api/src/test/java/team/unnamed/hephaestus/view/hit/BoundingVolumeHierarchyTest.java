@@ -0,0 +1,120 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.view.hit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.creative.base.Axis3D;
+import team.unnamed.creative.base.Vector3Float;
+import team.unnamed.creative.model.ElementRotation;
+import team.unnamed.hephaestus.asset.BoneAsset;
+import team.unnamed.hephaestus.asset.ElementAsset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundingVolumeHierarchyTest {
+
+    private static final BoneBounds UNIT = new BoneBounds(-0.5F, -0.5F, -0.5F, 0.5F, 0.5F, 0.5F);
+
+    @Test
+    @DisplayName("Test that bone bounds are computed from the cubes in blocks, with X and Z inverted")
+    public void test_bone_bounds() {
+        final BoneAsset asset = new BoneAsset(
+                "bone",
+                1,
+                List.of(new ElementAsset(
+                        new Vector3Float(0, 8, 8),
+                        new Vector3Float(8, 16, 12),
+                        ElementRotation.of(Vector3Float.ZERO, Axis3D.X, 0, false),
+                        Collections.emptyMap()
+                )),
+                Collections.emptyMap(),
+                2F
+        );
+
+        // (pixels - 8) / 16 * scale, then X and Z negated
+        assertEquals(new BoneBounds(0F, 0F, -0.5F, 1F, 1F, 0F), BoneBounds.of(asset));
+    }
+
+    @Test
+    @DisplayName("Test that oriented boxes are hit according to their rotation")
+    public void test_oriented_box_rotation() {
+        // 4 blocks long on X, rotated 90 degrees around Y, it becomes long on Z
+        final var bounds = new BoneBounds(-2F, -0.5F, -0.5F, 2F, 0.5F, 0.5F);
+        final double half = Math.sqrt(0.5);
+        final var box = OrientedBox.of(bounds, 0, 0, 0, 0, half, 0, half, 1, 1, 1);
+
+        // ray going down, hits at z = 1.5, which would miss the unrotated box
+        assertEquals(9.5, box.intersect(0, 10, 1.5, 0, -1, 0), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, box.intersect(1.5, 10, 0, 0, -1, 0));
+
+        // the enclosing bounds are rotated too
+        assertEquals(-2, box.minZ(), 1e-9);
+        assertEquals(0.5, box.maxX(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Test that oriented boxes are translated and scaled")
+    public void test_oriented_box_transform() {
+        final var box = OrientedBox.of(UNIT, 5, 0, 0, 0, 0, 0, 1, 2, 2, 2);
+
+        // the box spans x = [4, 6]
+        assertEquals(4, box.intersect(0, 0, 0, 1, 0, 0), 1e-9);
+        assertEquals(0, box.intersect(5, 0, 0, 1, 0, 0), 1e-9);
+        assertEquals(Double.POSITIVE_INFINITY, box.intersect(0, 1.5, 0, 1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Test that the hierarchy returns the closest hit box within range")
+    public void test_hierarchy_closest_hit() {
+        final List<String> values = new ArrayList<>();
+        final List<OrientedBox> boxes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // a row of unit boxes along X, from x = 10 to x = 48, in reverse order
+            final int x = 48 - i * 2;
+            values.add("box" + x);
+            boxes.add(OrientedBox.of(UNIT, x, 0, 0, 0, 0, 0, 1, 1, 1, 1));
+        }
+        final var hierarchy = BoundingVolumeHierarchy.build(values, boxes);
+
+        final var hit = hierarchy.raycast(0, 0, 0, 1, 0, 0, 100);
+        assertNotNull(hit);
+        assertEquals("box10", hit.value());
+        assertEquals(9.5, hit.distance(), 1e-9);
+
+        // from the middle of the row, backwards
+        final var back = hierarchy.raycast(31, 0, 0, -1, 0, 0, 100);
+        assertNotNull(back);
+        assertEquals("box30", back.value());
+
+        // out of range, or missing every box
+        assertNull(hierarchy.raycast(0, 0, 0, 1, 0, 0, 9));
+        assertNull(hierarchy.raycast(0, 2, 0, 1, 0, 0, 100));
+        assertNull(BoundingVolumeHierarchy.build(List.of(), List.of()).raycast(0, 0, 0, 1, 0, 0, 100));
+    }
+}
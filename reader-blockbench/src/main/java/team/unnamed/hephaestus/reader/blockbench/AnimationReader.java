@@ -52,6 +52,7 @@ public final class AnimationReader {
     private static final int BEZIER_CURVE_DIVISIONS = Integer.getInteger("hephaestus.bezier_divisions", 200);
     private static final KeyFrameInterpolator<Vector3Float> BEZIER_INTERPOLATOR = Interpolators.bezierVector3Float(BEZIER_CURVE_DIVISIONS);
     private static final int TICKS_PER_SECOND = Integer.getInteger("hephaestus.tps", 20);
+    private static final boolean BAKE_ANIMATIONS = Boolean.getBoolean("hephaestus.bake_animations");
 
     /**
      * Reads {@link Animation} from the given {@code json}
@@ -225,6 +226,7 @@ public final class AnimationReader {
                     .priority(priority)
                     .timelines(animators)
                     .effectsTimeline(effectsTimeline.build())
+                    .baked(BAKE_ANIMATIONS)
                     .build());
         }
         return animations;
@@ -24,25 +24,24 @@
 package team.unnamed.hephaestus.bukkit.v1_20_R3;
 
 import com.mojang.math.Transformation;
-import net.kyori.adventure.nbt.BinaryTagTypes;
 import net.kyori.adventure.nbt.CompoundBinaryTag;
-import net.kyori.adventure.nbt.TagStringIO;
-import net.minecraft.core.registries.BuiltInRegistries;
-import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.NbtAccounter;
 import net.minecraft.network.PacketListener;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.ClientboundAddEntityPacket;
 import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.syncher.EntityDataAccessor;
+import net.minecraft.network.syncher.EntityDataSerializer;
+import net.minecraft.network.syncher.EntityDataSerializers;
 import net.minecraft.network.syncher.SynchedEntityData;
-import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.Display;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.item.ItemDisplayContext;
 import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
 import net.minecraft.world.phys.Vec3;
 import org.bukkit.Color;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 import team.unnamed.creative.base.Vector3Float;
@@ -51,23 +50,62 @@ import team.unnamed.hephaestus.Hephaestus;
 import team.unnamed.hephaestus.Minecraft;
 import team.unnamed.hephaestus.bukkit.BoneView;
 import team.unnamed.hephaestus.util.Quaternion;
+import team.unnamed.hephaestus.view.hit.OrientedBox;
+import team.unnamed.hephaestus.view.modifier.BoneModifier;
 import team.unnamed.hephaestus.view.modifier.BoneModifierMap;
+import team.unnamed.hephaestus.view.modifier.BoneModifierType;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
 public class BoneEntity extends Display.ItemDisplay implements BoneView, BoneModifierMap.Forwarding {
+    // transformation interpolation duration when updated every tick
+    static final int INTERPOLATION_DURATION = 3;
+
+    // Display entity data accessors, the right rotation is never used. Using
+    // them directly allows setting each channel of the transformation
+    // separately. Their ids are read from a display entity, see probeData
+    static final EntityDataAccessor<Integer> DATA_INTERPOLATION_DURATION;
+    static final EntityDataAccessor<Vector3f> DATA_TRANSLATION;
+    static final EntityDataAccessor<Vector3f> DATA_SCALE;
+    static final EntityDataAccessor<Quaternionf> DATA_LEFT_ROTATION;
+    static final EntityDataAccessor<ItemStack> DATA_ITEM_STACK;
+
+    static {
+        // the accessors are private in Display, and their names are obfuscated
+        // at runtime, so the ids are found by setting distinct values through
+        // the public setters, which also checks their serializers
+        final var probe = new Display.ItemDisplay(EntityType.ITEM_DISPLAY, null);
+        probe.getEntityData().packDirty();
+        probe.setTransformationInterpolationDuration(Integer.MAX_VALUE);
+        probe.setTransformation(new Transformation(
+                new Vector3f(1, 2, 3),
+                new Quaternionf(0, 0, 1, 0),
+                new Vector3f(4, 5, 6),
+                null
+        ));
+        probe.setItemStack(new ItemStack(Items.STONE));
+        final var data = probe.getEntityData().packDirty();
+        DATA_INTERPOLATION_DURATION = probeData(data, EntityDataSerializers.INT, Integer.MAX_VALUE);
+        DATA_TRANSLATION = probeData(data, EntityDataSerializers.VECTOR3, new Vector3f(1, 2, 3));
+        DATA_SCALE = probeData(data, EntityDataSerializers.VECTOR3, new Vector3f(4, 5, 6));
+        DATA_LEFT_ROTATION = probeData(data, EntityDataSerializers.QUATERNION, new Quaternionf(0, 0, 1, 0));
+        DATA_ITEM_STACK = probeData(data, EntityDataSerializers.ITEM_STACK, null);
+    }
+
+    // max change of each transformation channel that is not sent to viewers
+    private static final float TRANSLATION_EPSILON = Float.parseFloat(System.getProperty("hephaestus.translation_epsilon", "0.0001"));
+    private static final float ROTATION_EPSILON = Float.parseFloat(System.getProperty("hephaestus.rotation_epsilon", "0.00001"));
+    private static final float SCALE_EPSILON = Float.parseFloat(System.getProperty("hephaestus.scale_epsilon", "0.0001"));
+
     // Bone item NBT: { CustomModelData: int, display: { color: 0xrrggbb } }
     protected final ModelViewImpl view;
     protected final Bone bone;
 
     private final float modelScale;
-    protected List<SynchedEntityData.DataValue<?>> initialData;
+    // the initial data of this bone, shared by every view of the same model and scale
+    private SpawnTemplate.BoneTemplate spawnTemplate;
 
     private final BoneModifierMap modifiers = BoneModifierMap.create(this);
 
@@ -75,8 +113,37 @@ public class BoneEntity extends Display.ItemDisplay implements BoneView, BoneMod
     private Quaternion lastRotation = Quaternion.IDENTITY;
     private Vector3Float lastScale = Vector3Float.ONE;
 
+    // the transformation channels last marked as dirty, initially the display defaults
+    private float sentTranslationX, sentTranslationY, sentTranslationZ;
+    private float sentRotationX, sentRotationY, sentRotationZ, sentRotationW = 1;
+    private float sentScaleX = 1, sentScaleY = 1, sentScaleZ = 1;
+
     private int color = 0xFFFFFF;
 
+    // the interpolation duration of per-tick updates, and whether the
+    // client is interpolating towards a keyframe instead (see interpolate)
+    private int interpolationDuration = INTERPOLATION_DURATION;
+    private boolean interpolating;
+
+    /**
+     * Creates the accessor of the entity data value with the given serializer
+     * and value, or the only one with the given serializer if the value is null
+     */
+    private static <T> @NotNull EntityDataAccessor<T> probeData(
+            final @Nullable List<SynchedEntityData.DataValue<?>> data,
+            final @NotNull EntityDataSerializer<T> serializer,
+            final @Nullable T value
+    ) {
+        if (data != null) {
+            for (final var dataValue : data) {
+                if (dataValue.serializer() == serializer && (value == null || value.equals(dataValue.value()))) {
+                    return new EntityDataAccessor<>(dataValue.id(), serializer);
+                }
+            }
+        }
+        throw new IllegalStateException("Display entity data value not found: " + value + " (" + serializer + ")");
+    }
+
     public BoneEntity(ModelViewImpl view, Bone bone, Vector3Float initialPosition, Quaternion initialRotation, float modelScale) {
         //noinspection DataFlowIssue
         super(EntityType.ITEM_DISPLAY, null);
@@ -88,14 +155,16 @@ public class BoneEntity extends Display.ItemDisplay implements BoneView, BoneMod
 
     protected void initialize(Vector3Float initialPosition, Quaternion initialRotation) {
         setItemTransform(ItemDisplayContext.THIRD_PERSON_LEFT_HAND);
-        setTransformationInterpolationDuration(3);
+        setTransformationInterpolationDuration(INTERPOLATION_DURATION);
         setViewRange(1000);
         setNoGravity(false);
 
         update(initialPosition, initialRotation, Vector3Float.ONE);
         updateItem();
 
-        initialData = super.getEntityData().packDirty();
+        final var entityData = super.getEntityData();
+        final var initialData = entityData.packDirty();
+        spawnTemplate = view.spawnTemplate().bone(bone.name(), initialData == null ? List.of() : initialData, entityData.get(DATA_ITEM_STACK));
     }
 
     protected void show(Consumer<? super Packet<? extends PacketListener>> packetConsumer) {
@@ -113,7 +182,61 @@ public class BoneEntity extends Display.ItemDisplay implements BoneView, BoneMod
                 Vec3.ZERO, // velocity: unused
                 0 // head yaw: We don't use this
         ));
-        packetConsumer.accept(new ClientboundSetEntityDataPacket(entityId(), initialData));
+        packetConsumer.accept(new ClientboundSetEntityDataPacket(entityId(), spawnData()));
+    }
+
+    /**
+     * Creates the entity data to spawn this bone, reusing the
+     * values of the spawn template that did not change
+     *
+     * @return The spawn entity data
+     */
+    private @NotNull List<SynchedEntityData.DataValue<?>> spawnData() {
+        final var template = spawnTemplate;
+        final var entityData = getEntityData();
+        final List<SynchedEntityData.DataValue<?>> data = new ArrayList<>(template.staticData().size() + 5);
+        data.addAll(template.staticData());
+        data.add(vectorData(DATA_TRANSLATION, template.translation(), sentTranslationX, sentTranslationY, sentTranslationZ));
+        data.add(vectorData(DATA_SCALE, template.scale(), sentScaleX, sentScaleY, sentScaleZ));
+
+        final var rotation = template.rotation();
+        if (rotation != null
+                && rotation.value().x == sentRotationX && rotation.value().y == sentRotationY
+                && rotation.value().z == sentRotationZ && rotation.value().w == sentRotationW) {
+            data.add(rotation);
+        } else {
+            data.add(new SynchedEntityData.DataValue<>(DATA_LEFT_ROTATION.getId(), DATA_LEFT_ROTATION.getSerializer(),
+                    new Quaternionf(sentRotationX, sentRotationY, sentRotationZ, sentRotationW)));
+        }
+
+        // item stacks are shared (see BoneItems), compare them by identity
+        final var itemStack = entityData.get(DATA_ITEM_STACK);
+        if (template.item() != null && itemStack == template.itemStack()) {
+            data.add(template.item());
+        } else {
+            data.add(new SynchedEntityData.DataValue<>(DATA_ITEM_STACK.getId(), DATA_ITEM_STACK.getSerializer(), itemStack));
+        }
+
+        final var interpolationDuration = entityData.get(DATA_INTERPOLATION_DURATION);
+        if (template.interpolationDuration() != null && interpolationDuration.equals(template.interpolationDuration().value())) {
+            data.add(template.interpolationDuration());
+        } else {
+            data.add(new SynchedEntityData.DataValue<>(DATA_INTERPOLATION_DURATION.getId(), DATA_INTERPOLATION_DURATION.getSerializer(), interpolationDuration));
+        }
+        return data;
+    }
+
+    private static @NotNull SynchedEntityData.DataValue<Vector3f> vectorData(
+            final @NotNull EntityDataAccessor<Vector3f> accessor,
+            final @Nullable SynchedEntityData.DataValue<Vector3f> template,
+            final float x,
+            final float y,
+            final float z
+    ) {
+        if (template != null && template.value().x == x && template.value().y == y && template.value().z == z) {
+            return template;
+        }
+        return new SynchedEntityData.DataValue<>(accessor.getId(), accessor.getSerializer(), new Vector3f(x, y, z));
     }
 
     /**
@@ -133,6 +256,54 @@ public class BoneEntity extends Display.ItemDisplay implements BoneView, BoneMod
         }
     }
 
+    /**
+     * Packs the dirty data of this entity, clearing it
+     *
+     * @return The dirty data values, or null if there are none
+     */
+    @Nullable List<SynchedEntityData.DataValue<?>> packDirtyData() {
+        return getEntityData().packDirty();
+    }
+
+    /**
+     * Returns the current transformation interpolation duration
+     *
+     * @return The interpolation duration, in ticks
+     */
+    int interpolationDuration() {
+        return getEntityData().get(DATA_INTERPOLATION_DURATION);
+    }
+
+    /**
+     * Determines whether the client is interpolating this bone towards
+     * a keyframe by itself, see {@link #interpolate}
+     *
+     * @return True if interpolating towards a keyframe
+     */
+    boolean interpolating() {
+        return interpolating;
+    }
+
+    /**
+     * Creates the oriented bounding box of this bone, with the
+     * transformation last sent to viewers, relative to the position
+     * of the bone entities (see {@link ModelViewImpl#raycast})
+     *
+     * @return The hit box, or null if this bone has no cubes
+     */
+    @Nullable OrientedBox hitBox() {
+        final var bounds = view.model().boneBounds(bone.name());
+        if (bounds == null) {
+            return null;
+        }
+        return OrientedBox.of(
+                bounds,
+                sentTranslationX, sentTranslationY, sentTranslationZ,
+                sentRotationX, sentRotationY, sentRotationZ, sentRotationW,
+                sentScaleX, sentScaleY, sentScaleZ
+        );
+    }
+
     @Override
     public int entityId() {
         return this.getId();
@@ -143,50 +314,152 @@ public class BoneEntity extends Display.ItemDisplay implements BoneView, BoneMod
         return bone;
     }
 
+    @Override
+    public void update(
+            final float positionX, final float positionY, final float positionZ,
+            final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+            final float scaleX, final float scaleY, final float scaleZ
+    ) {
+        if (modifiers.isEmpty()
+                && positionX == lastPosition.x() && positionY == lastPosition.y() && positionZ == lastPosition.z()
+                && rotationX == lastRotation.x() && rotationY == lastRotation.y() && rotationZ == lastRotation.z() && rotationW == lastRotation.w()
+                && scaleX == lastScale.x() && scaleY == lastScale.y() && scaleZ == lastScale.z()) {
+            // Nothing changed, avoid creating the vectors at all
+            return;
+        }
+        update(
+                new Vector3Float(positionX, positionY, positionZ),
+                new Quaternion(rotationX, rotationY, rotationZ, rotationW),
+                new Vector3Float(scaleX, scaleY, scaleZ)
+        );
+    }
+
     @Override
     public void update(@NotNull Vector3Float position, @NotNull Quaternion rotation, @NotNull Vector3Float scale) {
         position = modifiers.modifyPosition(position);
         rotation = modifiers.modifyRotation(rotation);
         scale = modifiers.modifyScale(scale);
 
-        if (position.equals(lastPosition) && rotation.equals(lastRotation) && scale.equals(lastScale)) {
-            // Don't update if everything is the same (avoids marking the data as dirty)
-            // todo: we can separate this!
-            return;
-        }
-
         lastPosition = position;
         lastRotation = rotation;
         lastScale = scale;
 
-        // Changes are not immediate, packets are sent by the base entity tracker
-        setTransformation(new Transformation(
-                new Vector3f(position.x(), position.y(), position.z()).mul(modelScale * bone.scale()),
-                null,
-                new Vector3f(
-                        modelScale * bone.scale() * scale.x(),
-                        modelScale * bone.scale() * scale.y(),
-                        modelScale * bone.scale() * scale.z()
-                ),
-                new Quaternionf(
-                        rotation.x(),
-                        rotation.y(),
-                        rotation.z(),
-                        rotation.w()
-                )
-        ));
-        setTransformationInterpolationDelay(0);
+        if (interpolating) {
+            // back to per-tick updates
+            interpolating = false;
+            setTransformationInterpolationDuration(interpolationDuration);
+        }
+
+        // Changes are not immediate, packets are sent by the base entity tracker.
+        // Every channel is compared against the last value marked as dirty, and it
+        // is only marked as dirty again if it changed more than its tolerance, so
+        // that float noise does not resend it, and neither do the unchanged ones
+        final float boneScale = modelScale * bone.scale();
+        final var entityData = getEntityData();
+        boolean changed = false;
+
+        final float translationX = position.x() * boneScale;
+        final float translationY = position.y() * boneScale;
+        final float translationZ = position.z() * boneScale;
+        if (Math.abs(translationX - sentTranslationX) > TRANSLATION_EPSILON
+                || Math.abs(translationY - sentTranslationY) > TRANSLATION_EPSILON
+                || Math.abs(translationZ - sentTranslationZ) > TRANSLATION_EPSILON) {
+            sentTranslationX = translationX;
+            sentTranslationY = translationY;
+            sentTranslationZ = translationZ;
+            entityData.set(DATA_TRANSLATION, new Vector3f(translationX, translationY, translationZ));
+            changed = true;
+        }
+
+        final float rotationX = (float) rotation.x();
+        final float rotationY = (float) rotation.y();
+        final float rotationZ = (float) rotation.z();
+        final float rotationW = (float) rotation.w();
+        if (Math.abs(rotationX - sentRotationX) > ROTATION_EPSILON
+                || Math.abs(rotationY - sentRotationY) > ROTATION_EPSILON
+                || Math.abs(rotationZ - sentRotationZ) > ROTATION_EPSILON
+                || Math.abs(rotationW - sentRotationW) > ROTATION_EPSILON) {
+            sentRotationX = rotationX;
+            sentRotationY = rotationY;
+            sentRotationZ = rotationZ;
+            sentRotationW = rotationW;
+            entityData.set(DATA_LEFT_ROTATION, new Quaternionf(rotationX, rotationY, rotationZ, rotationW));
+            changed = true;
+        }
+
+        final float scaleX = boneScale * scale.x();
+        final float scaleY = boneScale * scale.y();
+        final float scaleZ = boneScale * scale.z();
+        if (Math.abs(scaleX - sentScaleX) > SCALE_EPSILON
+                || Math.abs(scaleY - sentScaleY) > SCALE_EPSILON
+                || Math.abs(scaleZ - sentScaleZ) > SCALE_EPSILON) {
+            sentScaleX = scaleX;
+            sentScaleY = scaleY;
+            sentScaleZ = scaleZ;
+            entityData.set(DATA_SCALE, new Vector3f(scaleX, scaleY, scaleZ));
+            changed = true;
+        }
+
+        if (changed) {
+            setTransformationInterpolationDelay(0);
+            view.invalidateHitTree();
+        }
+    }
+
+    @Override
+    public boolean interpolate(
+            final float positionX, final float positionY, final float positionZ,
+            final double rotationX, final double rotationY, final double rotationZ, final double rotationW,
+            final float scaleX, final float scaleY, final float scaleZ,
+            final int ticks
+    ) {
+        if (!modifiers.isEmpty()) {
+            return false;
+        }
+        // the target transform is sent once, and the client
+        // interpolates towards it during the whole span
+        update(positionX, positionY, positionZ, rotationX, rotationY, rotationZ, rotationW, scaleX, scaleY, scaleZ);
+        interpolating = true;
+        setTransformationInterpolationDuration(ticks);
+        return true;
+    }
+
+    /**
+     * Sets the amount of ticks between transformation updates, the
+     * client interpolates for longer if bones are updated less often
+     *
+     * @param interval The ticks between transformation updates
+     */
+    void updateInterval(final int interval) {
+        interpolationDuration = INTERPOLATION_DURATION * interval;
+        if (!interpolating) {
+            // only marked as dirty if it changed
+            setTransformationInterpolationDuration(interpolationDuration);
+        }
     }
 
     @Override
     public void colorize(final @NotNull Color color) {
         final var newColor = color.asRGB();
-        if (newColor == this.color) {
-            // No changes
-            return;
-        }
-        this.color = newColor;
-        updateItem();
+        view.command(() -> {
+            if (newColor == this.color) {
+                // No changes
+                return;
+            }
+            this.color = newColor;
+            updateItem();
+        });
+    }
+
+    @Override
+    public <T extends BoneModifier> void configure(final @NotNull BoneModifierType<T> type, final @NotNull Consumer<T> configure) {
+        // modifiers are read while ticking, change them from the ticking thread
+        view.command(() -> modifiers.configure(type, configure));
+    }
+
+    @Override
+    public <T extends BoneModifier> void removeModifier(final @NotNull BoneModifierType<T> type) {
+        view.command(() -> modifiers.removeModifier(type));
     }
 
     @Override
@@ -204,21 +477,8 @@ public class BoneEntity extends Display.ItemDisplay implements BoneView, BoneMod
                 .putInt(Minecraft.CUSTOM_MODEL_DATA_TAG, bone.customModelData())
                 .build());
 
-        final var item = BuiltInRegistries.ITEM.get(new ResourceLocation(itemKey.namespace(), itemKey.value()));
-        final var itemStack = new ItemStack(item, 1);
-
-        try {
-            final var bytes = new ByteArrayOutputStream();
-            final var output = new DataOutputStream(bytes);
-            BinaryTagTypes.COMPOUND.write(tag, output);
-            output.flush();
-
-            final var nmsTag = CompoundTag.TYPE.load(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), NbtAccounter.unlimitedHeap());
-            itemStack.setTag(nmsTag);
-        } catch (final IOException e) {
-            throw new RuntimeException("Failed to write item tag", e);
-        }
-
+        // shared by every bone with the same item, converted only once
+        final var itemStack = BoneItems.itemStack(itemKey, tag);
         setItemStack(itemStack);
     }
 
@@ -0,0 +1,157 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.bukkit.v1_20_R3;
+
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.nbt.BinaryTag;
+import net.kyori.adventure.nbt.ByteArrayBinaryTag;
+import net.kyori.adventure.nbt.ByteBinaryTag;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.DoubleBinaryTag;
+import net.kyori.adventure.nbt.FloatBinaryTag;
+import net.kyori.adventure.nbt.IntArrayBinaryTag;
+import net.kyori.adventure.nbt.IntBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import net.kyori.adventure.nbt.LongArrayBinaryTag;
+import net.kyori.adventure.nbt.LongBinaryTag;
+import net.kyori.adventure.nbt.ShortBinaryTag;
+import net.kyori.adventure.nbt.StringBinaryTag;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.ByteArrayTag;
+import net.minecraft.nbt.ByteTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.DoubleTag;
+import net.minecraft.nbt.FloatTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.ShortTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts and interns the item stacks of bones, so that the same
+ * item (e.g. same model and color) is converted once, and shared by
+ * every bone of every view.
+ *
+ * <p>The returned item stacks are shared, so they must never be
+ * modified.</p>
+ */
+final class BoneItems {
+    // max amount of cached item stacks, the cache is cleared when
+    // exceeded, e.g. if views are colorized with too many colors
+    private static final int MAX_SIZE = Integer.getInteger("hephaestus.item_cache_size", 4096);
+
+    private static final Map<CacheKey, ItemStack> CACHE = new ConcurrentHashMap<>();
+
+    private BoneItems() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Returns the shared item stack for the given item key and tag
+     *
+     * @param itemKey The item key
+     * @param tag The item tag
+     * @return The shared item stack, must not be modified
+     */
+    static @NotNull ItemStack itemStack(final @NotNull Key itemKey, final @NotNull CompoundBinaryTag tag) {
+        final var key = new CacheKey(itemKey, tag);
+        var itemStack = CACHE.get(key);
+        if (itemStack == null) {
+            final var item = BuiltInRegistries.ITEM.get(new ResourceLocation(itemKey.namespace(), itemKey.value()));
+            itemStack = new ItemStack(item, 1);
+            itemStack.setTag(convert(tag));
+
+            if (CACHE.size() >= MAX_SIZE) {
+                CACHE.clear();
+            }
+            final var previous = CACHE.putIfAbsent(key, itemStack);
+            if (previous != null) {
+                itemStack = previous;
+            }
+        }
+        return itemStack;
+    }
+
+    /**
+     * Converts the given Adventure compound tag to a Minecraft
+     * compound tag, without serializing it
+     *
+     * @param tag The Adventure tag
+     * @return The Minecraft tag
+     */
+    static @NotNull CompoundTag convert(final @NotNull CompoundBinaryTag tag) {
+        final var converted = new CompoundTag();
+        for (final Map.Entry<String, ? extends BinaryTag> entry : tag) {
+            converted.put(entry.getKey(), convert(entry.getValue()));
+        }
+        return converted;
+    }
+
+    private static @NotNull Tag convert(final @NotNull BinaryTag tag) {
+        if (tag instanceof CompoundBinaryTag compound) {
+            return convert(compound);
+        } else if (tag instanceof IntBinaryTag intTag) {
+            return IntTag.valueOf(intTag.value());
+        } else if (tag instanceof StringBinaryTag stringTag) {
+            return StringTag.valueOf(stringTag.value());
+        } else if (tag instanceof ByteBinaryTag byteTag) {
+            return ByteTag.valueOf(byteTag.value());
+        } else if (tag instanceof ShortBinaryTag shortTag) {
+            return ShortTag.valueOf(shortTag.value());
+        } else if (tag instanceof LongBinaryTag longTag) {
+            return LongTag.valueOf(longTag.value());
+        } else if (tag instanceof FloatBinaryTag floatTag) {
+            return FloatTag.valueOf(floatTag.value());
+        } else if (tag instanceof DoubleBinaryTag doubleTag) {
+            return DoubleTag.valueOf(doubleTag.value());
+        } else if (tag instanceof ListBinaryTag list) {
+            final var converted = new ListTag();
+            for (final BinaryTag element : list) {
+                converted.add(convert(element));
+            }
+            return converted;
+        } else if (tag instanceof ByteArrayBinaryTag byteArray) {
+            return new ByteArrayTag(byteArray.value());
+        } else if (tag instanceof IntArrayBinaryTag intArray) {
+            return new IntArrayTag(intArray.value());
+        } else if (tag instanceof LongArrayBinaryTag longArray) {
+            return new LongArrayTag(longArray.value());
+        } else {
+            throw new IllegalArgumentException("Unsupported tag type: " + tag.type());
+        }
+    }
+
+    private record CacheKey(@NotNull Key itemKey, @NotNull CompoundBinaryTag tag) {
+    }
+}
@@ -27,19 +27,30 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import team.unnamed.hephaestus.Model;
 import team.unnamed.hephaestus.bukkit.ModelPersistenceListener;
 import team.unnamed.hephaestus.bukkit.track.BukkitModelViewTracker;
 import team.unnamed.hephaestus.bukkit.ModelView;
 import team.unnamed.hephaestus.bukkit.track.ModelViewPersistenceHandler;
+import team.unnamed.hephaestus.view.ModelViewTicker;
+
+import java.util.concurrent.ForkJoinPool;
 
 import static java.util.Objects.requireNonNull;
 
 final class BukkitModelEngine_v1_20_R3Impl implements BukkitModelEngine_v1_20_R3 {
+    // evaluates animations in parallel, then applies them in the main thread
+    private static final boolean PARALLEL_EVALUATION = Boolean.parseBoolean(System.getProperty("hephaestus.parallel_evaluation", "true"));
+
     private final Plugin plugin;
     private final ModelViewPersistenceHandler persistenceHandler;
     private final ModelPersistenceListener persistenceListener;
+    private final ModelViewTicker ticker = PARALLEL_EVALUATION
+            ? ModelViewTicker.create(ForkJoinPool.commonPool())
+            : ModelViewTicker.create();
+    private final BukkitTask tickTask;
 
     BukkitModelEngine_v1_20_R3Impl(final @NotNull Plugin plugin, final @NotNull ModelViewPersistenceHandler persistenceHandler) {
         this.plugin = requireNonNull(plugin, "plugin");
@@ -47,7 +58,14 @@ final class BukkitModelEngine_v1_20_R3Impl implements BukkitModelEngine_v1_20_R3
 
         Bukkit.getPluginManager().registerEvents(new ModelInteractListener(plugin), plugin);
         this.persistenceListener = new ModelPersistenceListener(plugin, this, persistenceHandler);
-        Bukkit.getPluginManager().registerEvents(persistenceListener, plugin);;
+        Bukkit.getPluginManager().registerEvents(persistenceListener, plugin);
+
+        // a single task ticks all the views
+        this.tickTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            ticker.tick();
+            // then send the changes of the views without base entity
+            BukkitModelViewTrackerImpl.INSTANCE.tick();
+        }, 1L, 1L);
     }
 
     @Override
@@ -67,13 +85,21 @@ final class BukkitModelEngine_v1_20_R3Impl implements BukkitModelEngine_v1_20_R3
         return view;
     }
 
+    @Override
+    public @NotNull ModelViewTicker ticker() {
+        return ticker;
+    }
+
     @Override
     public @NotNull ModelView createView(Model model, Location location) {
-        return new ModelViewImpl(plugin, model, location, 1.0f);
+        final var view = new ModelViewImpl(plugin, model, location, 1.0f);
+        ticker.register(view);
+        return view;
     }
 
     @Override
     public void close() {
+        tickTask.cancel();
         persistenceListener.onPluginDisable();
     }
 }
@@ -26,39 +26,72 @@ package team.unnamed.hephaestus.bukkit.v1_20_R3;
 import net.minecraft.network.protocol.Packet;
 import net.minecraft.server.level.ChunkMap;
 import net.minecraft.server.level.ServerEntity;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import org.bukkit.Location;
 import org.bukkit.craftbukkit.v1_20_R3.CraftWorld;
 import org.bukkit.craftbukkit.v1_20_R3.entity.CraftEntity;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Interaction;
 import org.bukkit.entity.Player;
 import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.hephaestus.bukkit.track.BukkitModelViewTracker;
+import team.unnamed.hephaestus.bukkit.BoneView;
 import team.unnamed.hephaestus.bukkit.ModelView;
 import team.unnamed.hephaestus.view.AbstractModelView;
+import team.unnamed.hephaestus.view.LevelOfDetail;
+import team.unnamed.hephaestus.view.hit.BoundingVolumeHierarchy;
 import team.unnamed.hephaestus.view.track.ModelViewTrackingRule;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.UUID;
 import java.util.function.Consumer;
 
+import static java.util.Objects.requireNonNull;
+
 final class BukkitModelViewTrackerImpl implements BukkitModelViewTracker {
     private static final Access.FieldReflect<ServerEntity> SERVER_ENTITY_FIELD = Access.findFieldByType(ChunkMap.TrackedEntity.class, ServerEntity.class);
 
+    // views without a base entity are tracked using only packets, instead of
+    // spawning a synthetic base entity for them (see VirtualViewTracker)
+    private static final boolean VIRTUAL_BASES = Boolean.getBoolean("hephaestus.virtual_bases");
+
+    // max distance, in blocks, from the position of a view to its bones,
+    // views whose position is farther than this from a ray are not tested
+    private static final double HIT_MARGIN = Double.parseDouble(System.getProperty("hephaestus.hit_margin", "4"));
+
     static final BukkitModelViewTrackerImpl INSTANCE = new BukkitModelViewTrackerImpl();
 
-    private final Map<UUID, ModelViewImpl> trackedViews = new HashMap<>();
+    private final ViewRegistry trackedViews = new ViewRegistry();
+    private volatile LevelOfDetail viewerUpdates = LevelOfDetail.none();
+    private final VirtualViewTracker virtualViews = new VirtualViewTracker();
 
     private BukkitModelViewTrackerImpl() {
     }
 
+    @Override
+    public @NotNull LevelOfDetail viewerUpdates() {
+        return viewerUpdates;
+    }
+
+    @Override
+    public void viewerUpdates(final @NotNull LevelOfDetail viewerUpdates) {
+        this.viewerUpdates = requireNonNull(viewerUpdates, "viewerUpdates");
+    }
+
     @Override
     public boolean stopTracking(final @NotNull AbstractModelView<Player> abstractView) {
         final var view = ensureThisModuleModelView(abstractView);
+        if (virtualViews.untrack(view)) {
+            trackedViews.unregister(view, null, -1);
+            // nothing else can show it again, drop it from the ticker
+            view.markRemoved();
+            return true;
+        }
         final var base = view.base();
 
         if (base == null) {
@@ -97,7 +130,7 @@ final class BukkitModelViewTrackerImpl implements BukkitModelViewTracker {
             tracker.updatePlayer(seenBy.getPlayer());
         }
 
-        trackedViews.remove(base.getUniqueId());
+        trackedViews.unregister(view, base.getUniqueId(), base.getEntityId());
         return true;
     }
 
@@ -108,13 +141,17 @@ final class BukkitModelViewTrackerImpl implements BukkitModelViewTracker {
 
     @Override
     public boolean startGlobalTracking(final @NotNull AbstractModelView<Player> abstractView) {
-        final var view = ensureThisModuleModelView(abstractView);
-        return startGlobalTrackingOn(view, createSyntheticBaseEntityWhenNoProvided(view));
+        return startTracking(abstractView, ModelViewTrackingRule.all());
     }
 
     @Override
     public @Nullable ModelView getViewOnBase(final @NotNull Entity base) {
-        return trackedViews.get(base.getUniqueId());
+        return trackedViews.byBase(base.getUniqueId());
+    }
+
+    @Override
+    public @Nullable ModelView getViewByEntityId(final int entityId) {
+        return trackedViews.byEntityId(entityId);
     }
 
     @Override
@@ -186,16 +223,79 @@ final class BukkitModelViewTrackerImpl implements BukkitModelViewTracker {
             entityTracker.updatePlayer(player);
         }
 
-        trackedViews.put(base.getUniqueId(), view);
+        trackedViews.register(view, base.getUniqueId(), base.getEntityId());
         return true;
     }
 
     @Override
     public boolean startTracking(final @NotNull AbstractModelView<Player> abstractView, final @NotNull ModelViewTrackingRule<Player> trackingRule) {
         final var view = ensureThisModuleModelView(abstractView);
+        if (VIRTUAL_BASES && view.base() == null) {
+            if (!virtualViews.track(view, trackingRule)) {
+                return false;
+            }
+            trackedViews.register(view, null, -1);
+            return true;
+        }
         return startTrackingOn(view, createSyntheticBaseEntityWhenNoProvided(view), trackingRule);
     }
 
+    @Override
+    public @Nullable BoneView raycast(final @NotNull Location origin, final @NotNull Vector direction, final double maxDistance) {
+        requireNonNull(origin, "origin");
+        requireNonNull(direction, "direction");
+        final var world = requireNonNull(origin.getWorld(), "origin world");
+        final var normalized = direction.clone().normalize();
+        final var hit = raycast(
+                ((CraftWorld) world).getHandle(),
+                new Vec3(origin.x(), origin.y(), origin.z()),
+                new Vec3(normalized.getX(), normalized.getY(), normalized.getZ()),
+                maxDistance
+        );
+        return hit == null ? null : hit.value();
+    }
+
+    /**
+     * Finds the closest bone of a tracked view hit by the given ray,
+     * must be called from the main thread
+     *
+     * <p>The views near the ray are found by their base entity, using
+     * the level entity sections, or using the chunk sections of the views
+     * without a base entity, then, their bones are tested by their
+     * bounding volume hierarchy.</p>
+     *
+     * @param level The level
+     * @param from The ray origin
+     * @param direction The ray direction, normalized
+     * @param maxDistance The max distance, in blocks
+     * @return The closest hit, or null if no bone is hit
+     */
+    @Nullable BoundingVolumeHierarchy.Hit<BoneEntity> raycast(
+            final @NotNull ServerLevel level,
+            final @NotNull Vec3 from,
+            final @NotNull Vec3 direction,
+            final double maxDistance
+    ) {
+        final var area = new AABB(from, from.add(direction.scale(maxDistance))).inflate(HIT_MARGIN);
+        final var closest = new RaycastResult(from, direction, maxDistance);
+        for (final var entity : level.getEntities((net.minecraft.world.entity.Entity) null, area)) {
+            final var view = trackedViews.byEntityId(entity.getId());
+            if (view != null) {
+                closest.test(view);
+            }
+        }
+        virtualViews.forEachNear(level.getWorld().getUID(), area, closest::test);
+        return closest.hit;
+    }
+
+    /**
+     * Updates the views tracked without a base entity, must
+     * be called once per tick, after the views are ticked
+     */
+    void tick() {
+        virtualViews.tick();
+    }
+
     private @NotNull Entity createSyntheticBaseEntityWhenNoProvided(final @NotNull ModelViewImpl view) {
         final var location = view.location();
         final var world = location.getWorld();
@@ -211,6 +311,29 @@ final class BukkitModelViewTrackerImpl implements BukkitModelViewTracker {
         return entity;
     }
 
+    // the closest hit of a ray, tested against several views
+    private static final class RaycastResult {
+        private final Vec3 from;
+        private final Vec3 direction;
+        private BoundingVolumeHierarchy.Hit<BoneEntity> hit;
+        private double maxDistance;
+
+        RaycastResult(final @NotNull Vec3 from, final @NotNull Vec3 direction, final double maxDistance) {
+            this.from = from;
+            this.direction = direction;
+            this.maxDistance = maxDistance;
+        }
+
+        void test(final @NotNull ModelViewImpl view) {
+            final var viewHit = view.raycast(from, direction, maxDistance);
+            if (viewHit != null) {
+                // farther views can't hit closer than this
+                hit = viewHit;
+                maxDistance = viewHit.distance();
+            }
+        }
+    }
+
     private @NotNull ModelViewImpl ensureThisModuleModelView(final AbstractModelView<Player> view) {
         if (view instanceof ModelViewImpl impl) {
             return impl;
@@ -25,24 +25,26 @@ package team.unnamed.hephaestus.bukkit.v1_20_R3;
 
 import io.papermc.paper.event.player.PlayerArmSwingEvent;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.projectile.ProjectileUtil;
 import net.minecraft.world.phys.AABB;
-import net.minecraft.world.phys.EntityHitResult;
+import net.minecraft.world.phys.HitResult;
 import net.minecraft.world.phys.Vec3;
+import org.bukkit.Bukkit;
+import org.bukkit.craftbukkit.v1_20_R3.entity.CraftEntity;
 import org.bukkit.craftbukkit.v1_20_R3.entity.CraftPlayer;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import team.unnamed.hephaestus.Minecraft;
-import team.unnamed.hephaestus.bukkit.ModelView;
 
 import java.util.function.Consumer;
 
@@ -76,7 +78,7 @@ final class ModelInteractListener implements Listener {
             return;
         }
 
-        // checkInteraction(player, modelEntity -> ((CraftPlayer) player).getHandle().attack(((team.unnamed.hephaestus.bukkit.v1_20_R3.CraftModelEntity) modelEntity).getHandle()));
+        checkInteraction(player, base -> ((CraftPlayer) player).getHandle().attack(((CraftEntity) base).getHandle()));
     }
 
     // handle the horrible interact event
@@ -87,45 +89,59 @@ final class ModelInteractListener implements Listener {
         if (action == Action.RIGHT_CLICK_AIR || action == Action.RIGHT_CLICK_BLOCK) {
             EquipmentSlot hand = event.getHand();
             requireNonNull(hand, "hand"); // should never be null, since action is never PHYSICAL
-            // checkInteraction(player, modelEntity -> Bukkit.getPluginManager().callEvent(new PlayerInteractEntityEvent(player, modelEntity, hand)));
+            checkInteraction(player, base -> Bukkit.getPluginManager().callEvent(new PlayerInteractEntityEvent(player, base, hand)));
         }
     }
 
-
-    private boolean checkInteraction(Player bukkitPlayer, Consumer<ModelView> callback) {
+    /**
+     * Checks whether the given player is looking at a bone of a
+     * model view, outside its base entity bounding box, which
+     * clients can't interact with, since the bones are only
+     * displayed by them
+     *
+     * @param bukkitPlayer The player
+     * @param callback Called with the base entity of the view
+     *                 whose bone was hit, if any
+     * @return True if a bone was hit
+     */
+    private boolean checkInteraction(Player bukkitPlayer, Consumer<Entity> callback) {
         ServerPlayer player = ((CraftPlayer) bukkitPlayer).getHandle();
 
         boolean creative = player.gameMode.getGameModeForPlayer().isCreative();
         double pickRange = creative ? Minecraft.PLAYER_CREATIVE_PICK_RANGE : Minecraft.PLAYER_DEFAULT_PICK_RANGE;
-        // HitResult result = player.pick(pickRange, 1.0F, false);
 
         Vec3 eyePosition = player.getEyePosition();
-        double rangeSqr = creative ? (pickRange = 6.0D) : pickRange;
-        rangeSqr *= rangeSqr;
+        Vec3 viewVector = player.getViewVector(1.0F);
 
-        // if (result != null) {
-        //     rangeSqr = result.getLocation().distanceToSqr(eyePosition);
-        // }
+        // bones behind blocks can't be hit
+        HitResult blockHit = player.pick(pickRange, 1.0F, false);
+        if (blockHit.getType() != HitResult.Type.MISS) {
+            pickRange = blockHit.getLocation().distanceTo(eyePosition);
+        }
 
-        Vec3 viewVector = player.getViewVector(1.0F);
-        Vec3 end = eyePosition.add(viewVector.x * pickRange, viewVector.y * pickRange, viewVector.z * pickRange);
+        var hit = BukkitModelViewTrackerImpl.INSTANCE.raycast(player.serverLevel(), eyePosition, viewVector, pickRange);
+        if (hit == null) {
+            return false;
+        }
+        double distance = hit.distance();
+
+        // if there's an entity in front of the bone (including the base
+        // entity of its view), the client already interacted with it
+        Vec3 end = eyePosition.add(viewVector.scale(distance));
         AABB aabb = player.getBoundingBox()
-                .expandTowards(viewVector.scale(pickRange))
+                .expandTowards(viewVector.scale(distance))
                 .inflate(1.0D, 1.0D, 1.0D);
-
-        EntityHitResult result = ProjectileUtil.getEntityHitResult(player, eyePosition, end, aabb, e -> !e.isSpectator() && e.isPickable(), rangeSqr);
-        if (result != null) {
-            Entity entity = result.getEntity();
-            Vec3 loc = result.getLocation();
-            double distance = eyePosition.distanceToSqr(loc);
-
-            /*if (distance <= 9.0D && distance < rangeSqr && entity instanceof MinecraftModelEntity modelEntity) {
-                callback.accept(modelEntity.getBukkitEntity());
-                return true;
-            }*/
+        if (ProjectileUtil.getEntityHitResult(player, eyePosition, end, aabb, e -> !e.isSpectator() && e.isPickable(), distance * distance) != null) {
+            return false;
         }
 
-        return false;
+        // views without a base entity have nothing to interact with
+        Entity base = hit.value().view.base();
+        if (base == null) {
+            return false;
+        }
+        callback.accept(base);
+        return true;
     }
 
 }
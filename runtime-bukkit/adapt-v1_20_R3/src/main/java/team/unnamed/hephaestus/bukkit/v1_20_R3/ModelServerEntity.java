@@ -32,6 +32,8 @@ import net.minecraft.server.network.ServerPlayerConnection;
 import net.minecraft.world.entity.Entity;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.hephaestus.view.LevelOfDetail;
 import team.unnamed.hephaestus.view.track.ModelViewTrackingRule;
 
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -47,6 +49,9 @@ final class ModelServerEntity extends ServerEntity {
     private final Entity base;
     private final Consumer<Packet<?>> broadcastChanges;
     private final ModelViewTrackingRule<Player> trackingRule;
+    private final Set<ServerPlayerConnection> trackedPlayers;
+    // created when per-viewer update rates are first used
+    private @Nullable ViewerThrottle viewerThrottle;
 
     public ModelServerEntity(
             final @NotNull ServerEntity replaced,
@@ -64,6 +69,7 @@ final class ModelServerEntity extends ServerEntity {
         this.base = base;
         this.broadcastChanges = broadcastChanges;
         this.trackingRule = trackingRule;
+        this.trackedPlayers = trackedPlayers;
     }
 
     public @NotNull ServerEntity replaced() {
@@ -76,7 +82,24 @@ final class ModelServerEntity extends ServerEntity {
         super.sendChanges();
 
         // Send model view changes
-        view.sendChanges(this.broadcastChanges);
+        final LevelOfDetail viewerUpdates = BukkitModelViewTrackerImpl.INSTANCE.viewerUpdates();
+        if (viewerUpdates != LevelOfDetail.none() && !(base instanceof ServerPlayer)) {
+            // every viewer is updated at its own rate
+            if (trackedPlayers.isEmpty()) {
+                // changes are kept dirty until somebody can see them
+                return;
+            }
+            if (viewerThrottle == null) {
+                viewerThrottle = new ViewerThrottle(view.bones(), base.getId());
+            }
+            viewerThrottle.sendChanges(trackedPlayers, viewerUpdates, base);
+        } else if (PacketBroadcast.ENABLED && !(base instanceof ServerPlayer)) {
+            // player bases also receive their own changes, which are not
+            // in the tracked players set, so they use the normal path
+            view.broadcastChanges(this.trackedPlayers);
+        } else {
+            view.sendChanges(this.broadcastChanges);
+        }
     }
 
     @Override
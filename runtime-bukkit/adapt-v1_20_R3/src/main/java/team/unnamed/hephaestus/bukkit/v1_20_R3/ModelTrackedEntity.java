@@ -68,7 +68,7 @@ final class ModelTrackedEntity extends ChunkMap.TrackedEntity {
         if (player == base) {
             if (!seenBySelf && trackingRule.shouldView(view, player.getBukkitEntity())) {
                 // Show model view
-                view.show(player.connection::send);
+                ModelViewImpl.bundle(player.connection::send, view::show);
                 seenBySelf = true;
             }
             return;
@@ -26,10 +26,19 @@ package team.unnamed.hephaestus.bukkit.v1_20_R3;
 import com.google.common.collect.ImmutableMap;
 import net.kyori.adventure.sound.Sound;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.BundlerInfo;
 import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
 import net.minecraft.network.protocol.game.ClientboundRemoveEntitiesPacket;
 import net.minecraft.network.protocol.game.ClientboundSetPassengersPacket;
+import net.minecraft.server.network.ServerPlayerConnection;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.craftbukkit.v1_20_R3.CraftWorld;
+import org.bukkit.craftbukkit.v1_20_R3.entity.CraftEntity;
 import org.bukkit.craftbukkit.v1_20_R3.entity.CraftPlayer;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.LivingEntity;
@@ -44,10 +53,16 @@ import team.unnamed.hephaestus.animation.controller.AnimationPlayer;
 import team.unnamed.hephaestus.bukkit.ModelView;
 import team.unnamed.hephaestus.util.Quaternion;
 import team.unnamed.hephaestus.util.Vectors;
+import team.unnamed.hephaestus.view.hit.BoundingVolumeHierarchy;
+import team.unnamed.hephaestus.view.hit.OrientedBox;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
@@ -59,11 +74,15 @@ public class ModelViewImpl implements ModelView {
     private final Model model;
     private final Location location;
     private final float scale;
+    private final SpawnTemplate spawnTemplate;
 
     private final AnimationPlayer animationPlayer;
     private final ImmutableMap<String, BoneEntity> bones;
 
-    private final Collection<Player> viewers = new HashSet<>();
+    private final Collection<Player> viewers = ConcurrentHashMap.newKeySet();
+
+    // changes requested from any thread, applied by the ticking thread
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
 
     // Invariable:
     // - If 'base' is set, 'baseEntityId' is set and 'viewers' is unused
@@ -71,16 +90,68 @@ public class ModelViewImpl implements ModelView {
     private Entity base = null;
     private int baseEntityId = -1;
 
+    // ticks between animation updates, see LevelOfDetail
+    private int updateInterval = 1;
+
+    // set when explicitly removed, see remove()
+    private volatile boolean removed;
+
+    // the hit boxes of the bones, built again after any bone moves
+    private volatile BoundingVolumeHierarchy<BoneEntity> hitTree;
+
     protected ModelViewImpl(final @NotNull Plugin plugin, final @NotNull Model model, final @NotNull Location location, final float scale) {
         this.plugin = requireNonNull(plugin, "plugin");
         this.model = requireNonNull(model, "model");
         this.location = requireNonNull(location, "location");
         this.scale = scale;
+        this.spawnTemplate = SpawnTemplate.of(model, scale);
         this.animationPlayer = AnimationPlayer.create(this);
         this.bones = instantiateBones();
     }
 
+    /**
+     * Passes the packets written by the given {@code writer} to the
+     * given consumer, wrapped in a single bundle packet, so that clients
+     * apply all of them in the same frame
+     *
+     * @param packetConsumer The packet consumer
+     * @param writer The packet writer, e.g. {@link #show(Consumer)}
+     */
+    @SuppressWarnings("unchecked")
+    static void bundle(
+            final @NotNull Consumer<? super Packet<?>> packetConsumer,
+            final @NotNull Consumer<Consumer<? super Packet<?>>> writer
+    ) {
+        final List<Packet<ClientGamePacketListener>> packets = new ArrayList<>();
+        writer.accept(packet -> packets.add((Packet<ClientGamePacketListener>) packet));
+
+        final int size = packets.size();
+        if (size == 1) {
+            // no need to bundle
+            packetConsumer.accept(packets.get(0));
+            return;
+        }
+        for (int from = 0; from < size; from += BundlerInfo.BUNDLE_SIZE_LIMIT) {
+            final int to = Math.min(size, from + BundlerInfo.BUNDLE_SIZE_LIMIT);
+            packetConsumer.accept(new ClientboundBundlePacket(packets.subList(from, to)));
+        }
+    }
+
+    /**
+     * Writes the packets to spawn this view, they are not bundled
+     * (see {@link #bundle(Consumer, Consumer)}), since the pairing
+     * packets are already bundled by the entity tracker
+     *
+     * <p>The changes queued while the view was not applied (e.g. while
+     * sleeping, see {@link #command(Runnable)}) are applied first, so
+     * that the spawn data is up-to-date.</p>
+     *
+     * @param packetConsumer The packet consumer
+     */
     public void show(final @NotNull Consumer<? super Packet<?>> packetConsumer) {
+        if (Bukkit.isPrimaryThread()) {
+            runCommands();
+        }
         final var ids = new int[bones.size()];
         int i = 0;
         for (final var bone : bones.values()) {
@@ -88,6 +159,11 @@ public class ModelViewImpl implements ModelView {
             bone.show(packetConsumer);
         }
 
+        if (baseEntityId == -1) {
+            // no base entity (e.g. virtual views), bones are placed at the view location
+            return;
+        }
+
         // add passengers to base entity
         //noinspection DataFlowIssue
         packetConsumer.accept(new ClientboundSetPassengersPacket(new FriendlyByteBuf(null) {
@@ -104,12 +180,45 @@ public class ModelViewImpl implements ModelView {
     }
 
     public void sendChanges(final @NotNull Consumer<? super Packet<?>> packetConsumer) {
-        // Send bone changes
+        if (viewers().isEmpty()) {
+            // changes are kept dirty until somebody can see them
+            return;
+        }
+        // Send bone changes, in a single bundle
+        bundle(packetConsumer, consumer -> {
+            for (var bone : bones.values()) {
+                // check metadata changes
+                // (rotation, position, color, etc...)
+                bone.sendDirtyData(consumer);
+            }
+        });
+    }
+
+    /**
+     * Sends the bone changes to the given connections, encoding
+     * the changes once for all of them, see {@link PacketBroadcast}
+     *
+     * @param connections The connections to send the changes to
+     */
+    public void broadcastChanges(final @NotNull Collection<? extends ServerPlayerConnection> connections) {
+        if (viewers().isEmpty() || connections.isEmpty()) {
+            // changes are kept dirty until somebody can see them
+            return;
+        }
+        final List<Packet<?>> packets = new ArrayList<>();
         for (var bone : bones.values()) {
-            // check metadata changes
-            // (rotation, position, color, etc...)
-            bone.sendDirtyData(packetConsumer);
+            bone.sendDirtyData(packets::add);
         }
+        if (packets.isEmpty()) {
+            return;
+        }
+        if (connections.size() == 1) {
+            // nothing to share, use the normal path
+            final var connection = connections.iterator().next();
+            bundle(connection::send, consumer -> packets.forEach(consumer));
+            return;
+        }
+        PacketBroadcast.broadcastBundle(connections, packets);
     }
 
     public void remove(final @NotNull Consumer<? super Packet<?>> packetConsumer) {
@@ -163,6 +272,16 @@ public class ModelViewImpl implements ModelView {
         return model;
     }
 
+    /**
+     * Returns the spawn template of the bones of this view,
+     * shared by the views of the same model and scale
+     *
+     * @return The spawn template
+     */
+    @NotNull SpawnTemplate spawnTemplate() {
+        return spawnTemplate;
+    }
+
     @Override
     public UUID getUniqueId() {
         return base.getUniqueId();
@@ -194,7 +313,19 @@ public class ModelViewImpl implements ModelView {
             player.showEntity(plugin, base);
         } else if (viewers.add(player)) {
             final var connection = ((CraftPlayer) player).getHandle().connection;
-            show(connection::send);
+            if (Bukkit.isPrimaryThread()) {
+                // bones are only changed by the ticking thread, which is
+                // not applying them now, so the spawn packets are sent right
+                // away, after the commands queued while the view slept
+                bundle(connection::send, this::show);
+            } else {
+                command(() -> {
+                    // it may have been removed before this was applied
+                    if (viewers.contains(player)) {
+                        bundle(connection::send, this::show);
+                    }
+                });
+            }
             return true;
         }
         return false;
@@ -206,8 +337,10 @@ public class ModelViewImpl implements ModelView {
         if (base != null) {
             player.hideEntity(plugin, base);
         } else if (viewers.remove(player)) {
-            final var connection = ((CraftPlayer) player).getHandle().connection;
-            remove(connection::send);
+            // only reads the bone entity ids, which never change, so it is
+            // sent right away, views without viewers don't apply their
+            // queued commands until somebody sees them again
+            remove(((CraftPlayer) player).getHandle().connection::send);
             return true;
         }
         return false;
@@ -240,15 +373,174 @@ public class ModelViewImpl implements ModelView {
     }
 
     @Override
-    public void tickAnimations() {
+    public boolean removed() {
+        // views are recreated when their base entity is loaded again
+        return removed || (base != null && !base.isValid());
+    }
+
+    @Override
+    public void remove() {
+        markRemoved();
+        BukkitModelViewTrackerImpl.INSTANCE.stopTracking(this);
+        if (base == null) {
+            // views without a base entity may have been shown manually
+            for (final var viewer : new ArrayList<>(viewers)) {
+                removeViewer(viewer);
+            }
+        }
+    }
+
+    /**
+     * Marks this view as removed, so that the ticker drops it
+     */
+    void markRemoved() {
+        removed = true;
+    }
+
+    /**
+     * Discards the hit boxes of the bones, they are built
+     * again the next time this view is {@link #raycast ray-casted}
+     */
+    void invalidateHitTree() {
+        hitTree = null;
+    }
+
+    private @NotNull BoundingVolumeHierarchy<BoneEntity> hitTree() {
+        var tree = hitTree;
+        if (tree == null) {
+            final List<BoneEntity> hitBones = new ArrayList<>(bones.size());
+            final List<OrientedBox> hitBoxes = new ArrayList<>(bones.size());
+            for (final var bone : bones.values()) {
+                final var box = bone.hitBox();
+                if (box != null) {
+                    hitBones.add(bone);
+                    hitBoxes.add(box);
+                }
+            }
+            tree = BoundingVolumeHierarchy.build(hitBones, hitBoxes);
+            hitTree = tree;
+        }
+        return tree;
+    }
+
+    /**
+     * Finds the closest bone of this view hit by the given ray, by
+     * their oriented bounding boxes, must be called from the main thread
+     *
+     * @param from The ray origin
+     * @param direction The ray direction, normalized
+     * @param maxDistance The max distance, in blocks
+     * @return The closest hit bone, or null if no bone is hit
+     */
+    @Nullable BoundingVolumeHierarchy.Hit<BoneEntity> raycast(final @NotNull Vec3 from, final @NotNull Vec3 direction, final double maxDistance) {
+        final var tree = hitTree();
+        if (tree.isEmpty()) {
+            return null;
+        }
+
+        // the bone transforms are relative to the bone entities position
+        final double originX, originY, originZ;
+        if (base == null) {
+            originX = location.x();
+            originY = location.y();
+            originZ = location.z();
+        } else {
+            // bone entities ride the base entity
+            final var handle = ((CraftEntity) base).getHandle();
+            final var bone = bones.values().iterator().next();
+            final var ridingPosition = handle.getPassengerRidingPosition(bone);
+            originX = ridingPosition.x;
+            originY = ridingPosition.y + bone.getMyRidingOffset(handle);
+            originZ = ridingPosition.z;
+        }
+        return tree.raycast(
+                from.x - originX, from.y - originY, from.z - originZ,
+                direction.x, direction.y, direction.z,
+                maxDistance
+        );
+    }
+
+    /**
+     * Enqueues a change to this view, it will be applied by the
+     * ticking thread when the next tick is applied, so that the bone
+     * entities state is never modified concurrently.
+     *
+     * @param command The change to apply
+     */
+    void command(final @NotNull Runnable command) {
+        commands.add(requireNonNull(command, "command"));
+    }
+
+    @Override
+    public void evaluateAnimations() {
+        // may run in parallel with other views, while the
+        // main thread waits, so reading the base is fine
         if (base != null) {
             if (base instanceof LivingEntity livingBase) {
-                animationPlayer.tick(livingBase.getYaw(), -livingBase.getPitch());
+                animationPlayer.evaluate(livingBase.getYaw(), -livingBase.getPitch(), Vector3Float.ZERO);
             } else {
-                animationPlayer.tick(base.getYaw(), base.getPitch());
+                animationPlayer.evaluate(base.getYaw(), base.getPitch(), Vector3Float.ZERO);
             }
         } else {
-            animationPlayer.tick();
+            animationPlayer.evaluate();
+        }
+    }
+
+    @Override
+    public void applyAnimations(final int interval) {
+        if (interval != updateInterval) {
+            updateInterval = interval;
+            for (final var bone : bones.values()) {
+                bone.updateInterval(interval);
+            }
+        }
+        applyAnimations();
+    }
+
+    @Override
+    public double closestViewerDistanceSquared() {
+        final var viewers = viewers();
+        if (viewers.isEmpty()) {
+            // checked every tick while sleeping, keep it cheap
+            return Double.POSITIVE_INFINITY;
+        }
+        // bases may move, unlike the spawn location, read from the
+        // handles so that no location is created for every viewer
+        final Level level;
+        final double x, y, z;
+        if (base == null) {
+            level = ((CraftWorld) location.getWorld()).getHandle();
+            x = location.x();
+            y = location.y();
+            z = location.z();
+        } else {
+            final var baseHandle = ((CraftEntity) base).getHandle();
+            level = baseHandle.level();
+            x = baseHandle.getX();
+            y = baseHandle.getY();
+            z = baseHandle.getZ();
+        }
+        double closest = Double.POSITIVE_INFINITY;
+        for (final var viewer : viewers) {
+            final var viewerHandle = ((CraftPlayer) viewer).getHandle();
+            if (viewerHandle.level() != level) {
+                continue;
+            }
+            closest = Math.min(closest, viewerHandle.distanceToSqr(x, y, z));
+        }
+        return closest;
+    }
+
+    @Override
+    public void applyAnimations() {
+        runCommands();
+        animationPlayer.apply();
+    }
+
+    private void runCommands() {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
         }
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.bukkit.v1_20_R3;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.BundlerInfo;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.game.ClientboundBundleDelimiterPacket;
+import net.minecraft.server.network.ServerPlayerConnection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Sends the same packets to many connections, encoding them only
+ * once. The encoded packets skip the packet encoder of every connection,
+ * but still go through the rest of their pipeline (length prefix,
+ * compression, encryption), which is connection-specific.
+ *
+ * <p>Since packet objects are never seen by the connections, packet
+ * listeners of other plugins will not see these packets, so this is
+ * disabled by default, see {@link #ENABLED}.</p>
+ *
+ * <p>Connections that are not in the play protocol, or that are holding
+ * packets back (e.g. behind a chunk that is not ready), receive the
+ * packets through {@link Connection#send}, so that they keep their order.</p>
+ */
+final class PacketBroadcast {
+    static final boolean ENABLED = Boolean.getBoolean("hephaestus.shared_packet_encoding");
+
+    private static final ClientboundBundleDelimiterPacket BUNDLE_DELIMITER = new ClientboundBundleDelimiterPacket();
+
+    // the packets a connection holds back until it can send them, null
+    // if not found, then every packet is sent through the connection
+    private static final @Nullable Access.FieldReflect<Queue<?>> PENDING_ACTIONS = findPendingActions();
+
+    private PacketBroadcast() {
+        throw new UnsupportedOperationException("This class cannot be instantiated");
+    }
+
+    /**
+     * Sends the given packets, bundled, to every
+     * given connection, encoding them only once
+     *
+     * @param connections The connections to send the packets to
+     * @param packets The packets to send, in the play protocol
+     */
+    static void broadcastBundle(
+            final @NotNull Collection<? extends ServerPlayerConnection> connections,
+            final @NotNull List<? extends Packet<?>> packets
+    ) {
+        final var codec = ConnectionProtocol.PLAY.codec(PacketFlow.CLIENTBOUND);
+        final int size = packets.size();
+        final List<ByteBuf> encoded = new ArrayList<>(size + 2);
+        ByteBuf delimiter = null;
+        try {
+            delimiter = encode(codec, BUNDLE_DELIMITER);
+            for (int from = 0; from < size; from += BundlerInfo.BUNDLE_SIZE_LIMIT) {
+                final int to = Math.min(size, from + BundlerInfo.BUNDLE_SIZE_LIMIT);
+                encoded.add(delimiter.retainedDuplicate());
+                for (int i = from; i < to; i++) {
+                    encoded.add(encode(codec, packets.get(i)));
+                }
+                encoded.add(delimiter.retainedDuplicate());
+            }
+
+            for (final var connection : connections) {
+                final var networkConnection = connection.getPlayer().connection.connection;
+                final var channel = networkConnection.channel;
+                if (!channel.isActive()) {
+                    continue;
+                }
+                if (!canWrite(networkConnection)) {
+                    ModelViewImpl.bundle(connection::send, consumer -> packets.forEach(consumer));
+                    continue;
+                }
+                // writes from the same thread keep their order, also
+                // relative to the packets sent through the connection
+                for (final ByteBuf buf : encoded) {
+                    channel.write(buf.retainedDuplicate());
+                }
+                channel.flush();
+            }
+        } finally {
+            if (delimiter != null) {
+                delimiter.release();
+            }
+            for (final ByteBuf buf : encoded) {
+                buf.release();
+            }
+        }
+    }
+
+    /**
+     * Determines whether encoded play packets can be written to the channel
+     * of the given connection directly, without overtaking other packets
+     */
+    private static boolean canWrite(final @NotNull Connection connection) {
+        if (PENDING_ACTIONS == null || !PENDING_ACTIONS.get(connection).isEmpty()) {
+            return false;
+        }
+        final var protocol = connection.channel.attr(Connection.ATTRIBUTE_CLIENTBOUND_PROTOCOL).get();
+        return protocol != null && protocol.protocol() == ConnectionProtocol.PLAY;
+    }
+
+    private static @Nullable Access.FieldReflect<Queue<?>> findPendingActions() {
+        try {
+            return Access.findFieldByType(Connection.class, Queue.class);
+        } catch (final IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static @NotNull ByteBuf encode(final @NotNull ConnectionProtocol.CodecData<?> codec, final @NotNull Packet<?> packet) {
+        // same as PacketEncoder: packet id, then packet data
+        final ByteBuf buf = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            final var output = new FriendlyByteBuf(buf);
+            output.writeVarInt(codec.packetId(packet));
+            packet.write(output);
+            return buf;
+        } catch (final RuntimeException e) {
+            buf.release();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.bukkit.v1_20_R3;
+
+import com.google.common.cache.CacheBuilder;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import team.unnamed.hephaestus.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The spawn data of the bones of a {@link Model} at a given scale,
+ * shared by all of its views.
+ *
+ * <p>Every view of a same model and scale starts with the same bone
+ * data, so it is packed only once, and showing a view only creates
+ * the data values that changed since then (e.g. the transform).</p>
+ */
+final class SpawnTemplate {
+    // models are weakly referenced (by identity), so that templates
+    // are discarded with them when models are reloaded
+    private static final Map<Model, Map<Float, SpawnTemplate>> TEMPLATES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .<Model, Map<Float, SpawnTemplate>>build()
+            .asMap();
+
+    private final Map<String, BoneTemplate> bones = new ConcurrentHashMap<>();
+
+    private SpawnTemplate() {
+    }
+
+    /**
+     * Returns the spawn template for the given model and scale
+     *
+     * @param model The model
+     * @param scale The model scale
+     * @return The spawn template
+     */
+    static @NotNull SpawnTemplate of(final @NotNull Model model, final float scale) {
+        return TEMPLATES.computeIfAbsent(model, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(scale, k -> new SpawnTemplate());
+    }
+
+    /**
+     * Returns the template of the bone with the given name, created
+     * from the given initial data if it does not exist yet
+     *
+     * @param name The bone name
+     * @param initialData The initial data of a bone entity
+     * @param itemStack The initial (shared) item stack of the bone entity
+     * @return The bone template
+     */
+    @NotNull BoneTemplate bone(
+            final @NotNull String name,
+            final @NotNull List<SynchedEntityData.DataValue<?>> initialData,
+            final @NotNull ItemStack itemStack
+    ) {
+        return bones.computeIfAbsent(name, k -> BoneTemplate.of(initialData, itemStack));
+    }
+
+    /**
+     * The initial data of a bone, split into the values that never
+     * change and the ones that are compared to the current values.
+     *
+     * <p>The item data holds a copy of the item stack, so the shared
+     * item stack it was created from is kept to compare by identity.</p>
+     */
+    record BoneTemplate(
+            @NotNull List<SynchedEntityData.DataValue<?>> staticData,
+            @Nullable SynchedEntityData.DataValue<Vector3f> translation,
+            @Nullable SynchedEntityData.DataValue<Quaternionf> rotation,
+            @Nullable SynchedEntityData.DataValue<Vector3f> scale,
+            @Nullable SynchedEntityData.DataValue<ItemStack> item,
+            @NotNull ItemStack itemStack,
+            @Nullable SynchedEntityData.DataValue<Integer> interpolationDuration
+    ) {
+        @SuppressWarnings("unchecked")
+        static @NotNull BoneTemplate of(final @NotNull List<SynchedEntityData.DataValue<?>> initialData, final @NotNull ItemStack itemStack) {
+            final List<SynchedEntityData.DataValue<?>> staticData = new ArrayList<>(initialData.size());
+            SynchedEntityData.DataValue<Vector3f> translation = null;
+            SynchedEntityData.DataValue<Quaternionf> rotation = null;
+            SynchedEntityData.DataValue<Vector3f> scale = null;
+            SynchedEntityData.DataValue<ItemStack> item = null;
+            SynchedEntityData.DataValue<Integer> interpolationDuration = null;
+            for (final var value : initialData) {
+                final int id = value.id();
+                if (id == BoneEntity.DATA_TRANSLATION.getId()) {
+                    translation = (SynchedEntityData.DataValue<Vector3f>) value;
+                } else if (id == BoneEntity.DATA_LEFT_ROTATION.getId()) {
+                    rotation = (SynchedEntityData.DataValue<Quaternionf>) value;
+                } else if (id == BoneEntity.DATA_SCALE.getId()) {
+                    scale = (SynchedEntityData.DataValue<Vector3f>) value;
+                } else if (id == BoneEntity.DATA_ITEM_STACK.getId()) {
+                    item = (SynchedEntityData.DataValue<ItemStack>) value;
+                } else if (id == BoneEntity.DATA_INTERPOLATION_DURATION.getId()) {
+                    interpolationDuration = (SynchedEntityData.DataValue<Integer>) value;
+                } else {
+                    staticData.add(value);
+                }
+            }
+            return new BoneTemplate(List.copyOf(staticData), translation, rotation, scale, item, itemStack, interpolationDuration);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.bukkit.v1_20_R3;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe registry of the tracked views, by base entity UUID and
+ * by entity id, indexing the id of the base entity and the ids of all
+ * the bone entities of every view.
+ *
+ * <p>Views are only registered and unregistered when they start and
+ * stop being tracked, while lookups may happen for every packet, from
+ * any thread, so lookups only take a shared read lock, and entity ids
+ * are looked up without boxing.</p>
+ */
+final class ViewRegistry {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, ModelViewImpl> byBase = new HashMap<>();
+    private final Int2ObjectMap<ModelViewImpl> byEntityId = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * Registers the given view
+     *
+     * @param view The view
+     * @param baseUniqueId The base entity UUID, or null if it has no base entity
+     * @param baseEntityId The base entity id, or -1 if it has no base entity
+     */
+    void register(final @NotNull ModelViewImpl view, final @Nullable UUID baseUniqueId, final int baseEntityId) {
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            if (baseUniqueId != null) {
+                byBase.put(baseUniqueId, view);
+            }
+            if (baseEntityId != -1) {
+                byEntityId.put(baseEntityId, view);
+            }
+            for (final BoneEntity bone : view.bones()) {
+                byEntityId.put(bone.getId(), view);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Unregisters the given view
+     *
+     * @param view The view
+     * @param baseUniqueId The base entity UUID, or null if it has no base entity
+     * @param baseEntityId The base entity id, or -1 if it has no base entity
+     */
+    void unregister(final @NotNull ModelViewImpl view, final @Nullable UUID baseUniqueId, final int baseEntityId) {
+        final Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            if (baseUniqueId != null) {
+                byBase.remove(baseUniqueId, view);
+            }
+            if (baseEntityId != -1) {
+                byEntityId.remove(baseEntityId, view);
+            }
+            for (final BoneEntity bone : view.bones()) {
+                byEntityId.remove(bone.getId(), view);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the view tracked on the base entity with the given UUID
+     *
+     * @param baseUniqueId The base entity UUID
+     * @return The view, or null if there is none
+     */
+    @Nullable ModelViewImpl byBase(final @NotNull UUID baseUniqueId) {
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return byBase.get(baseUniqueId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the view owning the entity with the given
+     * id, which can be its base entity or a bone entity
+     *
+     * @param entityId The entity id
+     * @return The view, or null if there is none
+     */
+    @Nullable ModelViewImpl byEntityId(final int entityId) {
+        final Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return byEntityId.get(entityId);
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
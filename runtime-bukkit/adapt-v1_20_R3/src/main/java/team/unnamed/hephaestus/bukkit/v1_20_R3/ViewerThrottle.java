@@ -0,0 +1,336 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.bukkit.v1_20_R3;
+
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundSetEntityDataPacket;
+import net.minecraft.network.syncher.SynchedEntityData;
+import net.minecraft.server.network.ServerPlayerConnection;
+import net.minecraft.world.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.hephaestus.view.LevelOfDetail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends the bone changes of a view to every viewer at its own rate,
+ * given by a {@link LevelOfDetail} policy on the distance between the
+ * viewer and the view base.
+ *
+ * <p>Viewers updated every {@code n} ticks receive the latest value of
+ * every entity data value that changed since their last update, with an
+ * {@code n} times longer interpolation duration, so that the client
+ * smooths the gaps. Viewers updated every tick only receive the duration
+ * again when their interval changes.</p>
+ *
+ * <p>Bones interpolating towards a keyframe by themselves are not
+ * throttled, every viewer receives them as they are.</p>
+ */
+final class ViewerThrottle {
+    // initial capacity of the pending values of a bone, by entity data
+    // id, grown if a bone changes a value with a greater id
+    private static final int DATA_ID_CAPACITY = BoneEntity.DATA_ITEM_STACK.getId() + 1;
+
+    private final BoneEntity[] bones;
+    // staggers the updates of the viewers of different views
+    private final int phase;
+
+    // the changes not sent yet to the viewers of every interval, by interval
+    private final Map<Integer, Tier> tiers = new HashMap<>();
+    private final Map<ServerPlayerConnection, Viewer> viewers = new HashMap<>();
+    private int tick;
+
+    ViewerThrottle(final @NotNull Collection<BoneEntity> bones, final int phase) {
+        this.bones = bones.toArray(new BoneEntity[0]);
+        this.phase = phase & Integer.MAX_VALUE;
+    }
+
+    /**
+     * Sends the bone changes of this tick to the given connections,
+     * or keeps them until it is their time to receive them
+     *
+     * @param connections The connections tracking the view
+     * @param policy The update interval policy, by viewer distance
+     * @param base The base entity of the view
+     */
+    @SuppressWarnings("unchecked")
+    void sendChanges(
+            final @NotNull Collection<? extends ServerPlayerConnection> connections,
+            final @NotNull LevelOfDetail policy,
+            final @NotNull Entity base
+    ) {
+        tick++;
+
+        final List<SynchedEntityData.DataValue<?>>[] changes = new List[bones.length];
+        boolean changed = false;
+        for (int index = 0; index < bones.length; index++) {
+            changes[index] = bones[index].packDirtyData();
+            changed |= changes[index] != null;
+        }
+        if (changed) {
+            for (final Tier tier : tiers.values()) {
+                tier.merge(changes);
+            }
+        }
+
+        // group the connections by update interval
+        final Map<Integer, List<ServerPlayerConnection>> groups = new HashMap<>();
+        for (final ServerPlayerConnection connection : connections) {
+            final int interval = policy.interval(connection.getPlayer().distanceToSqr(base));
+            final Viewer viewer = viewers.get(connection);
+            if (viewer == null) {
+                // just paired, the spawn data is up-to-date
+                viewers.put(connection, new Viewer(interval, tick));
+            } else {
+                viewer.seen = tick;
+                if (viewer.interval != interval) {
+                    // the changes this viewer did not receive yet are only
+                    // kept by its previous interval tier, sent along with
+                    // the interpolation duration of every bone for its new one
+                    send(List.of(connection), durationPackets(tiers.get(viewer.interval), interval));
+                    viewer.interval = interval;
+                }
+            }
+            groups.computeIfAbsent(interval, k -> new ArrayList<>()).add(connection);
+        }
+
+        for (final Map.Entry<Integer, List<ServerPlayerConnection>> group : groups.entrySet()) {
+            final int interval = group.getKey();
+            if (interval <= 1) {
+                if (changed) {
+                    send(group.getValue(), packets(changes));
+                }
+                continue;
+            }
+            Tier tier = tiers.get(interval);
+            if (tier == null) {
+                tier = new Tier();
+                tiers.put(interval, tier);
+                if (changed) {
+                    tier.merge(changes);
+                }
+            }
+            final List<Packet<?>> packets = new ArrayList<>();
+            if (changed) {
+                // the client interpolates these bones by itself until their
+                // next keyframe, so they are sent now, with their span duration
+                for (int index = 0; index < bones.length; index++) {
+                    if (changes[index] != null && bones[index].interpolating()) {
+                        final List<SynchedEntityData.DataValue<?>> values = new ArrayList<>();
+                        tier.take(index, values);
+                        packets.add(new ClientboundSetEntityDataPacket(bones[index].entityId(), values));
+                    }
+                }
+            }
+            if ((tick + phase) % interval == 0 && !tier.isEmpty()) {
+                packets.addAll(tier.packets(interval));
+                tier.clear();
+            }
+            send(group.getValue(), packets);
+        }
+
+        // forget the viewers and tiers that are gone
+        viewers.values().removeIf(viewer -> viewer.seen != tick);
+        tiers.keySet().retainAll(groups.keySet());
+    }
+
+    private @NotNull List<Packet<?>> packets(final @Nullable List<SynchedEntityData.DataValue<?>> @NotNull [] changes) {
+        final List<Packet<?>> packets = new ArrayList<>();
+        for (int index = 0; index < bones.length; index++) {
+            final var values = changes[index];
+            if (values != null) {
+                // the viewers updated every tick already have the bone duration
+                packets.add(new ClientboundSetEntityDataPacket(bones[index].entityId(), values));
+            }
+        }
+        return packets;
+    }
+
+    /**
+     * Creates the entity data packets that set the interpolation duration
+     * of every bone for a viewer that changed to the given interval, along
+     * with the changes it did not receive yet from its previous tier
+     */
+    private @NotNull List<Packet<?>> durationPackets(final @Nullable Tier previous, final int interval) {
+        final List<Packet<?>> packets = new ArrayList<>(bones.length);
+        for (int index = 0; index < bones.length; index++) {
+            final BoneEntity bone = bones[index];
+            final List<SynchedEntityData.DataValue<?>> values = new ArrayList<>();
+            if (previous != null) {
+                previous.collect(index, values);
+            }
+            // bones interpolating towards a keyframe, and bones of viewers
+            // updated every tick, keep the duration the bone entity has
+            final int duration = interval > 1 && !bone.interpolating()
+                    ? BoneEntity.INTERPOLATION_DURATION * interval
+                    : bone.interpolationDuration();
+            packets.add(new ClientboundSetEntityDataPacket(bone.entityId(), withDuration(values, duration)));
+        }
+        return packets;
+    }
+
+    /**
+     * Replaces the interpolation duration in the given entity data
+     * values of a bone, or adds it if there is none
+     */
+    private static @NotNull List<SynchedEntityData.DataValue<?>> withDuration(
+            final @NotNull List<SynchedEntityData.DataValue<?>> values,
+            final int duration
+    ) {
+        values.removeIf(value -> value.id() == BoneEntity.DATA_INTERPOLATION_DURATION.getId());
+        values.add(new SynchedEntityData.DataValue<>(
+                BoneEntity.DATA_INTERPOLATION_DURATION.getId(),
+                BoneEntity.DATA_INTERPOLATION_DURATION.getSerializer(),
+                duration
+        ));
+        return values;
+    }
+
+    /**
+     * Determines whether the given entity data values change the
+     * transformation of a bone, or its interpolation duration
+     */
+    private static boolean transformation(final @NotNull List<SynchedEntityData.DataValue<?>> values) {
+        for (final var value : values) {
+            final int id = value.id();
+            if (id == BoneEntity.DATA_TRANSLATION.getId()
+                    || id == BoneEntity.DATA_LEFT_ROTATION.getId()
+                    || id == BoneEntity.DATA_SCALE.getId()
+                    || id == BoneEntity.DATA_INTERPOLATION_DURATION.getId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void send(final @NotNull List<? extends ServerPlayerConnection> connections, final @NotNull List<Packet<?>> packets) {
+        if (packets.isEmpty()) {
+            return;
+        }
+        if (PacketBroadcast.ENABLED && connections.size() > 1) {
+            PacketBroadcast.broadcastBundle(connections, packets);
+            return;
+        }
+        for (final ServerPlayerConnection connection : connections) {
+            ModelViewImpl.bundle(connection::send, consumer -> packets.forEach(consumer));
+        }
+    }
+
+    private static final class Viewer {
+        int interval;
+        int seen;
+
+        Viewer(final int interval, final int seen) {
+            this.interval = interval;
+            this.seen = seen;
+        }
+    }
+
+    /**
+     * The latest entity data values of every bone that changed since
+     * the last update of the viewers of an interval.
+     */
+    private final class Tier {
+        private final SynchedEntityData.DataValue<?>[][] pending = new SynchedEntityData.DataValue<?>[bones.length][];
+        private int pendingBones;
+
+        void merge(final @Nullable List<SynchedEntityData.DataValue<?>> @NotNull [] changes) {
+            for (int index = 0; index < changes.length; index++) {
+                final var values = changes[index];
+                if (values == null) {
+                    continue;
+                }
+                var bonePending = pending[index];
+                if (bonePending == null) {
+                    bonePending = new SynchedEntityData.DataValue<?>[DATA_ID_CAPACITY];
+                    pending[index] = bonePending;
+                    pendingBones++;
+                }
+                for (final var value : values) {
+                    final int id = value.id();
+                    if (id >= bonePending.length) {
+                        bonePending = Arrays.copyOf(bonePending, id + 1);
+                        pending[index] = bonePending;
+                    }
+                    bonePending[id] = value;
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return pendingBones == 0;
+        }
+
+        @NotNull List<Packet<?>> packets(final int interval) {
+            final List<Packet<?>> packets = new ArrayList<>(pendingBones);
+            for (int index = 0; index < bones.length; index++) {
+                final var bonePending = pending[index];
+                if (bonePending == null) {
+                    continue;
+                }
+                final List<SynchedEntityData.DataValue<?>> values = new ArrayList<>();
+                collect(index, values);
+                // transformations are interpolated for the whole interval, the
+                // per-tick duration of the bone entity (which may be longer if
+                // the view is evaluated less often) is replaced, not scaled
+                if (transformation(values)) {
+                    withDuration(values, BoneEntity.INTERPOLATION_DURATION * interval);
+                }
+                packets.add(new ClientboundSetEntityDataPacket(bones[index].entityId(), values));
+            }
+            return packets;
+        }
+
+        void take(final int index, final @NotNull List<SynchedEntityData.DataValue<?>> values) {
+            collect(index, values);
+            if (pending[index] != null) {
+                pending[index] = null;
+                pendingBones--;
+            }
+        }
+
+        void collect(final int index, final @NotNull List<SynchedEntityData.DataValue<?>> values) {
+            final var bonePending = pending[index];
+            if (bonePending == null) {
+                return;
+            }
+            for (final var value : bonePending) {
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(pending, null);
+            pendingBones = 0;
+        }
+    }
+}
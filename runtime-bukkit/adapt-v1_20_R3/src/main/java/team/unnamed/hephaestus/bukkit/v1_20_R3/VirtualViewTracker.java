@@ -0,0 +1,334 @@
+/*
+ * This file is part of hephaestus-engine, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2023 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.hephaestus.bukkit.v1_20_R3;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.network.ServerPlayerConnection;
+import net.minecraft.util.Mth;
+import net.minecraft.world.phys.AABB;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.craftbukkit.v1_20_R3.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.hephaestus.view.track.ModelViewTrackingRule;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Tracks views without a base entity, using only packets: no entity
+ * exists on the server, so it is not ticked, saved or tracked by the
+ * server.
+ *
+ * <p>Views are indexed by the chunk section they are in, and players
+ * see the views in the sections around theirs, which are computed
+ * again when they move to another section.</p>
+ */
+final class VirtualViewTracker {
+    // radius, in chunk sections, of the sections whose views players see
+    private static final int SECTION_RADIUS = Integer.getInteger("hephaestus.virtual_view_sections", 4);
+
+    // views by world and section (see SectionPos#asLong)
+    private final Map<UUID, Map<Long, List<TrackedView>>> sections = new HashMap<>();
+    private final Map<ModelViewImpl, TrackedView> views = new HashMap<>();
+    private final Map<UUID, PlayerState> players = new HashMap<>();
+    // the online players of the current tick, reused between ticks
+    private final Set<UUID> online = new HashSet<>();
+
+    /**
+     * Starts tracking the given view, which must not have a base entity
+     *
+     * @param view The view
+     * @param trackingRule The tracking rule, filters viewers
+     * @return True if the view is now being tracked, false if
+     * it was already being tracked
+     */
+    boolean track(final @NotNull ModelViewImpl view, final @NotNull ModelViewTrackingRule<Player> trackingRule) {
+        if (views.containsKey(view)) {
+            return false;
+        }
+        final Location location = view.location();
+        if (location.getWorld() == null) {
+            throw new IllegalStateException("The world of the provided ModelView location is null.");
+        }
+        final var tracked = new TrackedView(
+                view,
+                trackingRule,
+                location.getWorld().getUID(),
+                SectionPos.asLong(location.getBlockX() >> 4, location.getBlockY() >> 4, location.getBlockZ() >> 4)
+        );
+        views.put(view, tracked);
+        sections.computeIfAbsent(tracked.world, k -> new HashMap<>())
+                .computeIfAbsent(tracked.section, k -> new ArrayList<>())
+                .add(tracked);
+        // only the players around its section may see it
+        for (final var state : players.values()) {
+            if (state.sees(tracked)) {
+                state.dirty = true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops tracking the given view, and hides it from its viewers
+     *
+     * @param view The view
+     * @return True if the view was being tracked
+     */
+    boolean untrack(final @NotNull ModelViewImpl view) {
+        final var tracked = views.remove(view);
+        if (tracked == null) {
+            return false;
+        }
+        final var worldSections = sections.get(tracked.world);
+        final var section = worldSections.get(tracked.section);
+        section.remove(tracked);
+        if (section.isEmpty()) {
+            worldSections.remove(tracked.section);
+            if (worldSections.isEmpty()) {
+                sections.remove(tracked.world);
+            }
+        }
+        // only the players around its section may see it, and they see
+        // the same views without it, no need to compute them again
+        for (final var state : players.values()) {
+            if (state.sees(tracked)) {
+                state.visible.remove(tracked);
+            }
+        }
+        for (final var viewer : new ArrayList<>(view.viewers())) {
+            view.removeViewer(viewer);
+        }
+        return true;
+    }
+
+    /**
+     * Passes the tracked views in the chunk sections that
+     * intersect the given box to the given consumer
+     *
+     * @param world The world UUID
+     * @param box The box, in blocks
+     * @param consumer The view consumer
+     */
+    void forEachNear(final @NotNull UUID world, final @NotNull AABB box, final @NotNull Consumer<ModelViewImpl> consumer) {
+        final var worldSections = sections.get(world);
+        if (worldSections == null) {
+            return;
+        }
+        final int minX = Mth.floor(box.minX) >> 4;
+        final int minY = Mth.floor(box.minY) >> 4;
+        final int minZ = Mth.floor(box.minZ) >> 4;
+        final int maxX = Mth.floor(box.maxX) >> 4;
+        final int maxY = Mth.floor(box.maxY) >> 4;
+        final int maxZ = Mth.floor(box.maxZ) >> 4;
+        final long volume = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        if (worldSections.size() < volume) {
+            // fewer occupied sections than sections in the box
+            for (final var entry : worldSections.entrySet()) {
+                final long section = entry.getKey();
+                final int x = SectionPos.x(section);
+                final int y = SectionPos.y(section);
+                final int z = SectionPos.z(section);
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ) {
+                    for (final var tracked : entry.getValue()) {
+                        consumer.accept(tracked.view);
+                    }
+                }
+            }
+            return;
+        }
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    final var section = worldSections.get(SectionPos.asLong(x, y, z));
+                    if (section != null) {
+                        for (final var tracked : section) {
+                            consumer.accept(tracked.view);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the viewers of every tracked view and sends their
+     * changes to them, must be called once per tick, after the
+     * views are ticked
+     */
+    void tick() {
+        if (views.isEmpty() && players.isEmpty()) {
+            return;
+        }
+
+        online.clear();
+        for (final Player player : Bukkit.getOnlinePlayers()) {
+            final UUID uuid = player.getUniqueId();
+            online.add(uuid);
+
+            final Location location = player.getLocation();
+            final UUID world = location.getWorld().getUID();
+            final long section = SectionPos.asLong(location.getBlockX() >> 4, location.getBlockY() >> 4, location.getBlockZ() >> 4);
+            final PlayerState state = players.computeIfAbsent(uuid, k -> new PlayerState());
+            if (!state.dirty && state.section == section && world.equals(state.world)) {
+                // same section, same visible views
+                continue;
+            }
+            state.dirty = false;
+            state.section = section;
+            state.world = world;
+            updateVisible(player, state);
+        }
+
+        // players that left see nothing
+        for (final Iterator<Map.Entry<UUID, PlayerState>> iterator = players.entrySet().iterator(); iterator.hasNext(); ) {
+            final var entry = iterator.next();
+            if (!online.contains(entry.getKey())) {
+                for (final var tracked : entry.getValue().visible) {
+                    tracked.view.viewers().removeIf(viewer -> viewer.getUniqueId().equals(entry.getKey()));
+                }
+                iterator.remove();
+            }
+        }
+
+        for (final var tracked : views.values()) {
+            sendChanges(tracked.view);
+        }
+    }
+
+    private void updateVisible(final @NotNull Player player, final @NotNull PlayerState state) {
+        final Set<TrackedView> visible = new HashSet<>();
+        final var worldSections = sections.get(state.world);
+        if (worldSections != null) {
+            final int sectionX = SectionPos.x(state.section);
+            final int sectionY = SectionPos.y(state.section);
+            final int sectionZ = SectionPos.z(state.section);
+            final int side = SECTION_RADIUS * 2 + 1;
+            if (worldSections.size() < side * side * side) {
+                // fewer occupied sections than sections around
+                for (final var entry : worldSections.entrySet()) {
+                    final long section = entry.getKey();
+                    if (Math.abs(SectionPos.x(section) - sectionX) <= SECTION_RADIUS
+                            && Math.abs(SectionPos.y(section) - sectionY) <= SECTION_RADIUS
+                            && Math.abs(SectionPos.z(section) - sectionZ) <= SECTION_RADIUS) {
+                        addVisible(player, entry.getValue(), visible);
+                    }
+                }
+            } else {
+                for (int x = sectionX - SECTION_RADIUS; x <= sectionX + SECTION_RADIUS; x++) {
+                    for (int y = sectionY - SECTION_RADIUS; y <= sectionY + SECTION_RADIUS; y++) {
+                        for (int z = sectionZ - SECTION_RADIUS; z <= sectionZ + SECTION_RADIUS; z++) {
+                            final var section = worldSections.get(SectionPos.asLong(x, y, z));
+                            if (section != null) {
+                                addVisible(player, section, visible);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        for (final var tracked : state.visible) {
+            if (!visible.contains(tracked)) {
+                tracked.view.removeViewer(player);
+            }
+        }
+        for (final var tracked : visible) {
+            if (!state.visible.contains(tracked)) {
+                tracked.view.addViewer(player);
+            }
+        }
+        state.visible = visible;
+    }
+
+    private static void addVisible(final @NotNull Player player, final @NotNull List<TrackedView> section, final @NotNull Set<TrackedView> into) {
+        for (final var tracked : section) {
+            if (tracked.trackingRule.shouldView(tracked.view, player)) {
+                into.add(tracked);
+            }
+        }
+    }
+
+    private static void sendChanges(final @NotNull ModelViewImpl view) {
+        final var viewers = view.viewers();
+        if (viewers.isEmpty()) {
+            return;
+        }
+        final List<ServerPlayerConnection> connections = new ArrayList<>(viewers.size());
+        for (final Player viewer : viewers) {
+            connections.add(((CraftPlayer) viewer).getHandle().connection);
+        }
+        if (PacketBroadcast.ENABLED && connections.size() > 1) {
+            view.broadcastChanges(connections);
+        } else {
+            view.sendChanges(packet -> {
+                for (final var connection : connections) {
+                    connection.send(packet);
+                }
+            });
+        }
+    }
+
+    private static final class TrackedView {
+        final ModelViewImpl view;
+        final ModelViewTrackingRule<Player> trackingRule;
+        final UUID world;
+        final long section;
+
+        TrackedView(final @NotNull ModelViewImpl view, final @NotNull ModelViewTrackingRule<Player> trackingRule, final @NotNull UUID world, final long section) {
+            this.view = view;
+            this.trackingRule = trackingRule;
+            this.world = world;
+            this.section = section;
+        }
+    }
+
+    private static final class PlayerState {
+        UUID world;
+        long section;
+        // true if views were added around its section
+        boolean dirty = true;
+        Set<TrackedView> visible = new HashSet<>();
+
+        /**
+         * Determines whether the given view is in the sections
+         * around the section of this player
+         */
+        boolean sees(final @NotNull TrackedView tracked) {
+            return tracked.world.equals(world)
+                    && Math.abs(SectionPos.x(tracked.section) - SectionPos.x(section)) <= SECTION_RADIUS
+                    && Math.abs(SectionPos.y(tracked.section) - SectionPos.y(section)) <= SECTION_RADIUS
+                    && Math.abs(SectionPos.z(tracked.section) - SectionPos.z(section)) <= SECTION_RADIUS;
+        }
+    }
+}
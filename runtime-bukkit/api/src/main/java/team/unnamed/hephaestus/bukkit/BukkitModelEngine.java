@@ -32,6 +32,7 @@ import team.unnamed.hephaestus.Model;
 import team.unnamed.hephaestus.ModelEngine;
 import team.unnamed.hephaestus.bukkit.track.BukkitModelViewTracker;
 import team.unnamed.hephaestus.bukkit.track.ModelViewPersistenceHandler;
+import team.unnamed.hephaestus.view.ModelViewTicker;
 import team.unnamed.hephaestus.view.track.ModelViewTrackingRule;
 
 import java.util.function.Predicate;
@@ -56,6 +57,23 @@ public interface BukkitModelEngine extends ModelEngine<Player, Location> {
         return createViewAndTrack(model, location, CreatureSpawnEvent.SpawnReason.CUSTOM);
     }
 
+    /**
+     * Returns the ticker that ticks the animations of the views
+     * created by this engine, once per server tick, in the main
+     * thread. Views are registered when created, and unregistered
+     * when their base entity is removed.
+     *
+     * @return The model view ticker
+     * @since 1.0.0
+     */
+    @NotNull ModelViewTicker ticker();
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The created view is registered to the engine {@link #ticker()},
+     * so its animations are ticked automatically.</p>
+     */
     @Override
     @NotNull ModelView createView(Model model, Location location);
 
@@ -49,6 +49,20 @@ public interface ModelView extends AbstractModelView<Player> {
 
     @NotNull Location location();
 
+    /**
+     * Removes this view: it stops being tracked, it is hidden from
+     * its viewers, and {@link #removed()} returns true from now on,
+     * so it is not ticked anymore.
+     *
+     * <p>Views on a base entity are also removed when their base
+     * entity is removed. Views without a base entity are only removed
+     * by this method, or when they stop being tracked. This method
+     * must be called from the main thread.</p>
+     *
+     * @since 1.0.0
+     */
+    void remove();
+
     @Override
     @Nullable BoneView bone(final @NotNull String name);
 
@@ -23,12 +23,16 @@
  */
 package team.unnamed.hephaestus.bukkit.track;
 
+import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import team.unnamed.hephaestus.bukkit.BoneView;
 import team.unnamed.hephaestus.bukkit.ModelView;
 import team.unnamed.hephaestus.view.AbstractModelView;
+import team.unnamed.hephaestus.view.LevelOfDetail;
 import team.unnamed.hephaestus.view.track.ModelViewTracker;
 import team.unnamed.hephaestus.view.track.ModelViewTrackingRule;
 
@@ -73,6 +77,64 @@ public interface BukkitModelViewTracker extends ModelViewTracker<Player> {
      */
     @Nullable ModelView getViewOnBase(final @NotNull Entity base);
 
+    /**
+     * Returns the view that owns the entity with the given id,
+     * which can be either its base entity or any of its bone
+     * entities, or null if no tracked view owns it
+     *
+     * <p>This method is thread-safe, so it can be used from
+     * packet listeners, to resolve the view of an interacted
+     * entity.</p>
+     *
+     * @param entityId The entity id
+     * @return The view owning the given entity, or null if
+     * no tracked view owns it
+     * @since 1.0.0
+     */
+    @Nullable ModelView getViewByEntityId(final int entityId);
+
+    /**
+     * Finds the closest bone of a tracked view hit by the given ray,
+     * by the oriented bounds of its cubes in its current pose, e.g. to
+     * tell which part of a model was hit when its base entity is damaged
+     *
+     * <p>Only the views near the ray are tested. This method must be
+     * called from the main thread.</p>
+     *
+     * @param origin The ray origin
+     * @param direction The ray direction
+     * @param maxDistance The max distance, in blocks
+     * @return The closest hit bone, or null if no bone is hit, its
+     * view can be obtained using {@link #getViewByEntityId(int)}
+     * @since 1.0.0
+     */
+    @Nullable BoneView raycast(final @NotNull Location origin, final @NotNull Vector direction, final double maxDistance);
+
+    /**
+     * Returns the policy that determines how often each viewer of a
+     * view tracked on a base entity receives its bone changes, by its
+     * distance to the base entity. Defaults to {@link LevelOfDetail#none()},
+     * which sends the changes to every viewer every tick.
+     *
+     * @return The per-viewer update policy
+     * @since 1.0.0
+     */
+    @NotNull LevelOfDetail viewerUpdates();
+
+    /**
+     * Sets the policy that determines how often each viewer of a view
+     * tracked on a base entity receives its bone changes, by its distance
+     * to the base entity.
+     *
+     * <p>Viewers updated every {@code n} ticks receive all the changes
+     * since their last update at once, and their client interpolates
+     * them for {@code n} times longer.</p>
+     *
+     * @param viewerUpdates The per-viewer update policy
+     * @since 1.0.0
+     */
+    void viewerUpdates(final @NotNull LevelOfDetail viewerUpdates);
+
 
     /**
      * Starts tracking the given {@code view}, this means to
@@ -68,9 +68,8 @@ public class ModelCommand implements CommandExecutor, TabCompleter {
     }
 
     private ModelView spawn(Player source, Model model) {
+        // views are ticked by the engine
         ModelView view = engine.createViewAndTrack(model, source.getLocation());
-        // tick em
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, view::tickAnimations, 0L, 1L);
         source.sendMessage(
                 Component.text()
                         .append(Component.text("Created view with id "))
@@ -165,9 +164,6 @@ public class ModelCommand implements CommandExecutor, TabCompleter {
 
                 final var view = engine.spawn(model, base);
 
-                // tick the view
-                Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, view::tickAnimations, 0L, 1L);
-
                 player.sendMessage(
                         Component.text()
                                 .append(Component.text("Created view with id "))
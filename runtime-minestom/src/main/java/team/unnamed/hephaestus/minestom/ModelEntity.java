@@ -30,6 +30,8 @@ import net.minestom.server.entity.EntityCreature;
 import net.minestom.server.entity.EntityType;
 import net.minestom.server.entity.Player;
 import net.minestom.server.instance.Instance;
+import net.minestom.server.network.packet.server.play.BundlePacket;
+import net.minestom.server.utils.PacketUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.creative.base.Vector2Float;
@@ -156,8 +158,27 @@ public class ModelEntity extends EntityCreature implements AbstractModelView<Pla
     }
 
     @Override
-    public void tickAnimations() {
-        animationPlayer.tick(position.yaw(), position.pitch());
+    public void applyAnimations() {
+        // bone metadata changes are sent between bundle delimiters,
+        // so that viewers apply them in the same frame
+        final var viewers = viewers();
+        if (viewers.isEmpty()) {
+            animationPlayer.apply();
+            return;
+        }
+        PacketUtils.sendGroupedPacket(viewers, new BundlePacket());
+        animationPlayer.apply();
+        PacketUtils.sendGroupedPacket(viewers, new BundlePacket());
+    }
+
+    @Override
+    public void evaluateAnimations() {
+        animationPlayer.evaluate(position.yaw(), position.pitch(), Vector3Float.ZERO);
+    }
+
+    @Override
+    public boolean removed() {
+        return isRemoved();
     }
 
     @Override